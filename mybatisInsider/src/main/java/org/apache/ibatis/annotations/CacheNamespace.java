@@ -49,5 +49,11 @@ public @interface CacheNamespace {
    * @since 3.4.2
    */
   Property[] properties() default {};
+
+  /**
+   * Age in milliseconds after which cached entries are refreshed in the background while still being served.
+   * @since 3.5.0
+   */
+  long refreshInterval() default 0;
   
 }
@@ -0,0 +1,244 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.io.ObjectStreamException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+
+/**
+ * A {@link ParamMap} that reads mapper method arguments straight from the argument array.
+ * <p>
+ * The parameter names of a method are resolved once into a shared {@link Shape}, so creating
+ * the map for a call allocates no hash table. Keys that are not parameter names (e.g. a key
+ * property set by a &lt;selectKey&gt;) are stored in the inherited hash map, which is only
+ * allocated when used. Operations that cannot be served from the array, such as iterating or
+ * removing a parameter name, first copy the arguments into the inherited hash map.
+ *
+ * @see org.apache.ibatis.reflection.ParamNameResolver#getNamedParams(Object[])
+ */
+public class ArrayParamMap extends ParamMap<Object> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Shape shape;
+  private final transient Object[] args;
+  private boolean inflated;
+
+  public ArrayParamMap(Shape shape, Object[] args) {
+    this.shape = shape;
+    this.args = args;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (!inflated) {
+      Integer argIndex = shape.index.get(key);
+      if (argIndex != null) {
+        return args[argIndex];
+      }
+    }
+    return super.get(key);
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    return containsKey(key) ? get(key) : defaultValue;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return (!inflated && shape.index.containsKey(key)) || super.containsKey(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    if (!inflated) {
+      Integer argIndex = shape.index.get(key);
+      if (argIndex != null) {
+        Object previous = args[argIndex];
+        args[argIndex] = value;
+        return previous;
+      }
+    }
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ?> m) {
+    for (Map.Entry<? extends String, ?> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Object putIfAbsent(String key, Object value) {
+    Object current = containsKey(key) ? get(key) : null;
+    if (current == null) {
+      put(key, value);
+    }
+    return current;
+  }
+
+  @Override
+  public int size() {
+    return inflated ? super.size() : shape.keys.length + super.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    inflate();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    inflate();
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    inflate();
+    return super.remove(key, value);
+  }
+
+  @Override
+  public boolean replace(String key, Object oldValue, Object newValue) {
+    inflate();
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public Object replace(String key, Object value) {
+    inflate();
+    return super.replace(key, value);
+  }
+
+  @Override
+  public void clear() {
+    inflated = true;
+    super.clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    inflate();
+    return super.keySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    inflate();
+    return super.values();
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    inflate();
+    return super.entrySet();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Object> action) {
+    inflate();
+    super.forEach(action);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+    inflate();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+    inflate();
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public Object clone() {
+    inflate();
+    ParamMap<Object> copy = new ParamMap<>();
+    copy.putAll(this);
+    return copy;
+  }
+
+  protected Object writeReplace() throws ObjectStreamException {
+    return clone();
+  }
+
+  /**
+   * Copies the arguments into the inherited hash map, after which this map behaves as a plain {@link ParamMap}.
+   */
+  private void inflate() {
+    if (!inflated) {
+      for (int i = 0; i < shape.keys.length; i++) {
+        String key = shape.keys[i];
+        if (!super.containsKey(key)) {
+          super.put(key, args[shape.index.get(key)]);
+        }
+      }
+      inflated = true;
+    }
+  }
+
+  /**
+   * The parameter names of one mapper method and the argument position each name reads from.
+   */
+  public static class Shape {
+
+    private final String[] keys;
+    private final Map<String, Integer> index;
+
+    public Shape(String[] keys, Map<String, Integer> index) {
+      this.keys = keys;
+      this.index = index;
+    }
+
+  }
+
+}
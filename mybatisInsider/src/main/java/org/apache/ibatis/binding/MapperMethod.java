@@ -36,6 +36,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * @author Clinton Begin
@@ -47,74 +49,99 @@ public class MapperMethod {
 
   private final SqlCommand command;
   private final MethodSignature method;
+  private final Call call;
 
   public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
     this.command = new SqlCommand(config, mapperInterface, method);
     this.method = new MethodSignature(config, mapperInterface, method);
+    this.call = resolveCall();
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
-    Object result;
+    return call.execute(sqlSession, args);
+  }
+
+  /**
+   * Picks the code path for the command type, return type and special parameters of this method once, so that
+   * {@link #execute(SqlSession, Object[])} does not test them on every call.
+   */
+  private Call resolveCall() {
+    final Call call;
     switch (command.getType()) {
       case INSERT: {
-    	Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.insert(command.getName(), param));
+        IntFunction<Object> rowCount = rowCountResult();
+        call = (sqlSession, args) -> rowCount.apply(sqlSession.insert(command.getName(), method.convertArgsToSqlCommandParam(args)));
         break;
       }
       case UPDATE: {
-        Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.update(command.getName(), param));
+        IntFunction<Object> rowCount = rowCountResult();
+        call = (sqlSession, args) -> rowCount.apply(sqlSession.update(command.getName(), method.convertArgsToSqlCommandParam(args)));
         break;
       }
       case DELETE: {
-        Object param = method.convertArgsToSqlCommandParam(args);
-        result = rowCountResult(sqlSession.delete(command.getName(), param));
+        IntFunction<Object> rowCount = rowCountResult();
+        call = (sqlSession, args) -> rowCount.apply(sqlSession.delete(command.getName(), method.convertArgsToSqlCommandParam(args)));
         break;
       }
       case SELECT:
         if (method.returnsVoid() && method.hasResultHandler()) {
-          executeWithResultHandler(sqlSession, args);
-          result = null;
+          call = (sqlSession, args) -> {
+            executeWithResultHandler(sqlSession, args);
+            return null;
+          };
         } else if (method.returnsMany()) {
-          result = executeForMany(sqlSession, args);
+          call = this::executeForMany;
         } else if (method.returnsMap()) {
-          result = executeForMap(sqlSession, args);
+          call = this::executeForMap;
         } else if (method.returnsCursor()) {
-          result = executeForCursor(sqlSession, args);
+          call = this::executeForCursor;
+        } else if (method.returnsOptional()) {
+          call = (sqlSession, args) -> {
+            Object result = sqlSession.selectOne(command.getName(), method.convertArgsToSqlCommandParam(args));
+            if (result == null || !method.getReturnType().equals(result.getClass())) {
+              result = OptionalUtil.ofNullable(result);
+            }
+            return result;
+          };
         } else {
-          Object param = method.convertArgsToSqlCommandParam(args);
-          result = sqlSession.selectOne(command.getName(), param);
-          if (method.returnsOptional() &&
-              (result == null || !method.getReturnType().equals(result.getClass()))) {
-            result = OptionalUtil.ofNullable(result);
-          }
+          call = (sqlSession, args) -> sqlSession.selectOne(command.getName(), method.convertArgsToSqlCommandParam(args));
         }
         break;
       case FLUSH:
-        result = sqlSession.flushStatements();
+        call = (sqlSession, args) -> sqlSession.flushStatements();
         break;
       default:
-        throw new BindingException("Unknown execution method for: " + command.getName());
+        return (sqlSession, args) -> {
+          throw new BindingException("Unknown execution method for: " + command.getName());
+        };
     }
-    if (result == null && method.getReturnType().isPrimitive() && !method.returnsVoid()) {
-      throw new BindingException("Mapper method '" + command.getName() 
-          + " attempted to return null from a method with a primitive return type (" + method.getReturnType() + ").");
+    if (!method.getReturnType().isPrimitive() || method.returnsVoid()) {
+      return call;
     }
-    return result;
+    return (sqlSession, args) -> {
+      Object result = call.execute(sqlSession, args);
+      if (result == null) {
+        throw new BindingException("Mapper method '" + command.getName()
+            + " attempted to return null from a method with a primitive return type (" + method.getReturnType() + ").");
+      }
+      return result;
+    };
   }
 
-  private Object rowCountResult(int rowCount) {
-    final Object result;
+  private IntFunction<Object> rowCountResult() {
+    final IntFunction<Object> result;
     if (method.returnsVoid()) {
-      result = null;
+      result = rowCount -> null;
     } else if (Integer.class.equals(method.getReturnType()) || Integer.TYPE.equals(method.getReturnType())) {
-      result = rowCount;
+      result = rowCount -> rowCount;
     } else if (Long.class.equals(method.getReturnType()) || Long.TYPE.equals(method.getReturnType())) {
-      result = (long)rowCount;
+      result = rowCount -> (long) rowCount;
     } else if (Boolean.class.equals(method.getReturnType()) || Boolean.TYPE.equals(method.getReturnType())) {
-      result = rowCount > 0;
+      result = rowCount -> rowCount > 0;
     } else {
-      throw new BindingException("Mapper method '" + command.getName() + "' has an unsupported return type: " + method.getReturnType());
+      result = rowCount -> {
+        throw new BindingException("Mapper method '" + command.getName() + "' has an unsupported return type: " + method.getReturnType());
+      };
     }
     return result;
   }
@@ -201,6 +228,13 @@ public class MapperMethod {
     return result;
   }
 
+  /**
+   * One way of running a mapper method, resolved by {@link MapperMethod#resolveCall()}.
+   */
+  private interface Call {
+    Object execute(SqlSession sqlSession, Object[] args);
+  }
+
   public static class ParamMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -2212268410512043556L;
@@ -282,7 +316,7 @@ public class MapperMethod {
     private final String mapKey;
     private final Integer resultHandlerIndex;
     private final Integer rowBoundsIndex;
-    private final ParamNameResolver paramNameResolver;
+    private final Function<Object[], Object> namedParams;
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
@@ -301,11 +335,11 @@ public class MapperMethod {
       this.returnsMap = this.mapKey != null;
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
-      this.paramNameResolver = new ParamNameResolver(configuration, method);
+      this.namedParams = new ParamNameResolver(configuration, method).compileNamedParams();
     }
 
     public Object convertArgsToSqlCommandParam(Object[] args) {
-      return paramNameResolver.getNamedParams(args);
+      return namedParams.apply(args);
     }
 
     public boolean hasRowBounds() {
@@ -16,7 +16,9 @@
 package org.apache.ibatis.builder;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -58,11 +60,39 @@ public abstract class BaseBuilder {
     return value == null ? defaultValue : Integer.valueOf(value);
   }
 
+  protected Long longValueOf(String value, Long defaultValue) {
+    return value == null ? defaultValue : Long.valueOf(value);
+  }
+
   protected Set<String> stringSetValueOf(String value, String defaultValue) {
     value = (value == null ? defaultValue : value);
     return new HashSet<>(Arrays.asList(value.split(",")));
   }
 
+  /**
+   * Parses {@code key=value} pairs separated by {@code |}.
+   */
+  protected Map<String, String> stringMapValueOf(String value) {
+    Map<String, String> result = new HashMap<>();
+    for (String pair : value.split("\\|")) {
+      int separator = pair.indexOf('=');
+      if (separator < 0) {
+        throw new BuilderException("Error parsing '" + value + "'. Expected key=value pairs separated by '|'.");
+      }
+      result.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+    }
+    return result;
+  }
+
+  protected int[] intArrayValueOf(String value, String defaultValue) {
+    String[] values = (value == null ? defaultValue : value).split(",");
+    int[] result = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = Integer.parseInt(values[i].trim());
+    }
+    return result;
+  }
+
   protected JdbcType resolveJdbcType(String alias) {
     if (alias == null) {
       return null;
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
@@ -128,12 +129,28 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean readWrite,
       boolean blocking,
       Properties props) {
+    return useNewCache(typeClass, evictionClass, flushInterval, null, size, readWrite, blocking, props);
+  }
+
+  public Cache useNewCache(Class<? extends Cache> typeClass,
+      Class<? extends Cache> evictionClass,
+      Long flushInterval,
+      Long refreshInterval,
+      Integer size,
+      boolean readWrite,
+      boolean blocking,
+      Properties props) {
     Cache cache = new CacheBuilder(currentNamespace)
         .implementation(valueOrDefault(typeClass, PerpetualCache.class))
         .addDecorator(valueOrDefault(evictionClass, LruCache.class))
         .clearInterval(flushInterval)
+        .refreshInterval(refreshInterval)
         .size(size)
         .readWrite(readWrite)
+        .valueCodec(configuration.getCacheValueCodec())
+        .invalidationTransport(configuration.getCacheInvalidationTransport())
+        .evictionListener(evictionListener(currentNamespace))
+        .weigher(configuration.getCacheWeigher())
         .blocking(blocking)
         .properties(props)
         .build();
@@ -142,6 +159,24 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return cache;
   }
 
+  private EvictionListener evictionListener(String cacheId) {
+    final EvictionListener statistics = configuration.getCacheStatistics().evictionListener(cacheId);
+    final EvictionListener dependencies = configuration.getTableDependencyIndex().evictionListener(cacheId);
+    return new EvictionListener() {
+      @Override
+      public void onEviction(Object key) {
+        statistics.onEviction(key);
+        dependencies.onEviction(key);
+      }
+
+      @Override
+      public void onClear() {
+        statistics.onClear();
+        dependencies.onClear();
+      }
+    };
+  }
+
   public ParameterMap addParameterMap(String id, Class<?> parameterClass, List<ParameterMapping> parameterMappings) {
     id = applyCurrentNamespace(id, false);
     ParameterMap parameterMap = new ParameterMap.Builder(configuration, id, parameterClass, parameterMappings).build();
@@ -266,7 +301,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String keyColumn,
       String databaseId,
       LanguageDriver lang,
-      String resultSets) {
+      String resultSets,
+      String tables,
+      boolean useLocalCache) {
 
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -287,10 +324,12 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .lang(lang)
         .resultOrdered(resultOrdered)
         .resultSets(resultSets)
+        .tables(tables)
         .resultMaps(getStatementResultMaps(resultMap, resultType, id))
         .resultSetType(resultSetType)
         .flushCacheRequired(valueOrDefault(flushCache, !isSelect))
         .useCache(valueOrDefault(useCache, isSelect))
+        .useLocalCache(useLocalCache)
         .cache(currentCache);
 
     ParameterMap statementParameterMap = getStatementParameterMap(parameterMap, parameterType, id);
@@ -303,6 +342,34 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return statement;
   }
 
+  public MappedStatement addMappedStatement(
+      String id,
+      SqlSource sqlSource,
+      StatementType statementType,
+      SqlCommandType sqlCommandType,
+      Integer fetchSize,
+      Integer timeout,
+      String parameterMap,
+      Class<?> parameterType,
+      String resultMap,
+      Class<?> resultType,
+      ResultSetType resultSetType,
+      boolean flushCache,
+      boolean useCache,
+      boolean resultOrdered,
+      KeyGenerator keyGenerator,
+      String keyProperty,
+      String keyColumn,
+      String databaseId,
+      LanguageDriver lang,
+      String resultSets) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, null, true);
+  }
+
   private <T> T valueOrDefault(T value, T defaultValue) {
     return value == null ? defaultValue : value;
   }
@@ -0,0 +1,238 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Renders a single-row insert statement as an insert of a fixed number of rows using a multi-row VALUES clause.
+ * <p>
+ * The parameter object must be a map holding the rows under the {@code list} key (the same shape that
+ * {@link org.apache.ibatis.session.SqlSession} builds for list parameters), so {@link
+ * org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator} assigns one generated key row per element.
+ * Because the SQL only depends on the row count, a handful of chunk sizes is enough to cover any list while keeping
+ * the statements cacheable by the driver and the database.
+ */
+public class MultiRowInsertSqlSource implements SqlSource {
+
+  public static final String MULTI_ROW_SUFFIX = "!multiRow";
+
+  private final Configuration configuration;
+  private final String sql;
+  private final List<ParameterMapping> parameterMappings;
+
+  private MultiRowInsertSqlSource(Configuration configuration, String sql, List<ParameterMapping> parameterMappings) {
+    this.configuration = configuration;
+    this.sql = sql;
+    this.parameterMappings = parameterMappings;
+  }
+
+  /**
+   * Returns true if the given statement is a static insert whose placeholders all live in a single VALUES tuple and
+   * whose keys, if any, are read back through {@link java.sql.Statement#getGeneratedKeys()}.
+   */
+  public static boolean supports(MappedStatement ms) {
+    return ms.getSqlCommandType() == SqlCommandType.INSERT
+        && !(ms.getKeyGenerator() instanceof SelectKeyGenerator)
+        && parseTemplate(ms) != null;
+  }
+
+  /**
+   * Builds the derived statement that inserts {@code rows} rows at a time.
+   */
+  public static MappedStatement buildStatement(MappedStatement ms, int rows) {
+    Template template = parseTemplate(ms);
+    if (template == null) {
+      throw new BuilderException("Statement '" + ms.getId() + "' cannot be rendered as a multi-row insert.");
+    }
+    Configuration configuration = ms.getConfiguration();
+    StringBuilder sql = new StringBuilder(template.prefix.length() + template.suffix.length() + rows * (template.tuple.length() + 2));
+    sql.append(template.prefix);
+    List<ParameterMapping> mappings = new ArrayList<>(rows * template.mappings.size());
+    boolean simpleRows = isSimpleType(configuration, ms.getParameterMap().getType());
+    for (int row = 0; row < rows; row++) {
+      if (row > 0) {
+        sql.append(", ");
+      }
+      sql.append(template.tuple);
+      String element = "list[" + row + "]";
+      for (ParameterMapping mapping : template.mappings) {
+        String property = simpleRows ? element : element + "." + mapping.getProperty();
+        mappings.add(new ParameterMapping.Builder(configuration, property, mapping.getTypeHandler())
+            .javaType(mapping.getJavaType())
+            .jdbcType(mapping.getJdbcType())
+            .jdbcTypeName(mapping.getJdbcTypeName())
+            .numericScale(mapping.getNumericScale())
+            .mode(mapping.getMode())
+            .build());
+      }
+    }
+    sql.append(template.suffix);
+    SqlSource sqlSource = new MultiRowInsertSqlSource(configuration, sql.toString(), Collections.unmodifiableList(mappings));
+    MappedStatement.Builder builder = new MappedStatement.Builder(configuration, ms.getId() + MULTI_ROW_SUFFIX + rows, sqlSource, SqlCommandType.INSERT)
+        .resource(ms.getResource())
+        .parameterMap(ms.getParameterMap())
+        .resultMaps(ms.getResultMaps())
+        .fetchSize(ms.getFetchSize())
+        .timeout(ms.getTimeout())
+        .statementType(ms.getStatementType())
+        .resultSetType(ms.getResultSetType())
+        .cache(ms.getCache())
+        .flushCacheRequired(ms.isFlushCacheRequired())
+        .useCache(ms.isUseCache())
+        .useLocalCache(ms.isUseLocalCache())
+        .keyGenerator(ms.getKeyGenerator())
+        .keyProperty(join(ms.getKeyProperties()))
+        .keyColumn(join(ms.getKeyColumns()))
+        .databaseId(ms.getDatabaseId())
+        .tables(join(ms.getTables()))
+        .lang(ms.getLang());
+    return builder.build();
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    return new BoundSql(configuration, sql, parameterMappings, parameterObject);
+  }
+
+  private static boolean isSimpleType(Configuration configuration, Class<?> type) {
+    return type != null && type != Object.class && configuration.getTypeHandlerRegistry().hasTypeHandler(type);
+  }
+
+  private static String join(String[] values) {
+    if (values == null) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (String value : values) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(value);
+    }
+    return sb.toString();
+  }
+
+  private static Template parseTemplate(MappedStatement ms) {
+    SqlSource sqlSource = ms.getSqlSource();
+    if (!(sqlSource instanceof RawSqlSource) && !(sqlSource instanceof StaticSqlSource)) {
+      return null;
+    }
+    BoundSql boundSql = sqlSource.getBoundSql(null);
+    String sql = boundSql.getSql();
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    if (mappings == null) {
+      mappings = Collections.emptyList();
+    }
+    int open = findValuesTuple(sql);
+    if (open < 0) {
+      return null;
+    }
+    int close = findClosingParenthesis(sql, open);
+    if (close < 0) {
+      return null;
+    }
+    String prefix = sql.substring(0, open);
+    String tuple = sql.substring(open, close + 1);
+    String suffix = sql.substring(close + 1);
+    if (countPlaceholders(prefix) != 0 || countPlaceholders(suffix) != 0 || countPlaceholders(tuple) != mappings.size()) {
+      return null;
+    }
+    return new Template(prefix, tuple, suffix, mappings);
+  }
+
+  private static int findValuesTuple(String sql) {
+    String lower = sql.toLowerCase(Locale.ENGLISH);
+    int index = lower.lastIndexOf("values");
+    while (index >= 0) {
+      boolean wordStart = index == 0 || !Character.isLetterOrDigit(lower.charAt(index - 1)) && lower.charAt(index - 1) != '_';
+      int i = index + "values".length();
+      while (i < lower.length() && Character.isWhitespace(lower.charAt(i))) {
+        i++;
+      }
+      if (wordStart && i < lower.length() && lower.charAt(i) == '(') {
+        return i;
+      }
+      index = index == 0 ? -1 : lower.lastIndexOf("values", index - 1);
+    }
+    return -1;
+  }
+
+  private static int findClosingParenthesis(String sql, int open) {
+    int depth = 0;
+    char quote = 0;
+    for (int i = open; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countPlaceholders(String sql) {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static class Template {
+    private final String prefix;
+    private final String tuple;
+    private final String suffix;
+    private final List<ParameterMapping> mappings;
+
+    Template(String prefix, String tuple, String suffix, List<ParameterMapping> mappings) {
+      this.prefix = prefix;
+      this.tuple = tuple;
+      this.suffix = suffix;
+      this.mappings = mappings;
+    }
+  }
+
+}
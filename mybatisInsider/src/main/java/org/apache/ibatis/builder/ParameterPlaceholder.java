@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A <code>#{}</code> placeholder of a property whose {@link ParameterExpression} was parsed when the mapper was loaded.
+ * The {@link org.apache.ibatis.mapping.ParameterMapping} is still built per statement by {@link SqlSourceBuilder},
+ * since the type of the property depends on the parameter.
+ *
+ * @since 3.5.0
+ */
+public final class ParameterPlaceholder {
+
+  private final String content;
+  private final Map<String, String> expression;
+
+  private ParameterPlaceholder(String content, Map<String, String> expression) {
+    this.content = content;
+    this.expression = Collections.unmodifiableMap(expression);
+  }
+
+  /**
+   * Returns the placeholder of the given token content, or null if it is not a valid property placeholder, in which
+   * case the token is left in the text and reported when the statement is built.
+   */
+  public static ParameterPlaceholder parse(String content) {
+    ParameterExpression expression;
+    try {
+      expression = new ParameterExpression(content);
+    } catch (RuntimeException e) {
+      return null;
+    }
+    if (expression.get("property") == null) {
+      return null;
+    }
+    return new ParameterPlaceholder(content, expression);
+  }
+
+  /**
+   * Returns the text between <code>#{</code> and <code>}</code>.
+   */
+  public String getContent() {
+    return content;
+  }
+
+  public String getProperty() {
+    return expression.get("property");
+  }
+
+  public Map<String, String> getExpression() {
+    return expression;
+  }
+
+  @Override
+  public String toString() {
+    return "#{" + content + "}";
+  }
+
+}
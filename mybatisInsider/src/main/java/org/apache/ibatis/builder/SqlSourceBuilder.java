@@ -46,6 +46,45 @@ public class SqlSourceBuilder extends BaseBuilder {
     return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
   }
 
+  /**
+   * Parses SQL made of text fragments, whose <code>#{}</code> placeholders are resolved as by
+   * {@link #parse(String, Class, Map)}, of {@link ParameterPlaceholder}s, resolved the same way without parsing them
+   * again, and of {@link ParameterMapping}s, used as is. Placeholders and mappings are written as a <code>?</code>.
+   * Fragments are joined without separator and whitespace around the statement is removed.
+   *
+   * @since 3.5.0
+   */
+  public SqlSource parse(List<?> fragments, Class<?> parameterType, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", handler);
+    int length = 0;
+    for (Object fragment : fragments) {
+      length += fragment instanceof String ? ((String) fragment).length() : 1;
+    }
+    StringBuilder sql = new StringBuilder(length);
+    for (Object fragment : fragments) {
+      if (fragment instanceof ParameterMapping) {
+        handler.getParameterMappings().add((ParameterMapping) fragment);
+        sql.append('?');
+      } else if (fragment instanceof ParameterPlaceholder) {
+        sql.append(handler.handlePlaceholder((ParameterPlaceholder) fragment));
+      } else {
+        String text = (String) fragment;
+        // fragments without placeholders are copied as is
+        sql.append(text.indexOf("#{") < 0 ? text : parser.parse(text));
+      }
+    }
+    int start = 0;
+    int end = sql.length();
+    while (start < end && sql.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sql.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return new StaticSqlSource(configuration, sql.substring(start, end), handler.getParameterMappings());
+  }
+
   private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
 
     private List<ParameterMapping> parameterMappings = new ArrayList<>();
@@ -68,8 +107,16 @@ public class SqlSourceBuilder extends BaseBuilder {
       return "?";
     }
 
+    public String handlePlaceholder(ParameterPlaceholder placeholder) {
+      parameterMappings.add(buildParameterMapping(placeholder.getContent(), placeholder.getExpression()));
+      return "?";
+    }
+
     private ParameterMapping buildParameterMapping(String content) {
-      Map<String, String> propertiesMap = parseParameterMapping(content);
+      return buildParameterMapping(content, parseParameterMapping(content));
+    }
+
+    private ParameterMapping buildParameterMapping(String content, Map<String, String> propertiesMap) {
       String property = propertiesMap.get("property");
       Class<?> propertyType;
       if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
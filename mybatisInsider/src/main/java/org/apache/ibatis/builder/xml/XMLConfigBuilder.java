@@ -22,6 +22,9 @@ import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
+import org.apache.ibatis.cache.CacheValueCodec;
+import org.apache.ibatis.cache.Weigher;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
@@ -30,6 +33,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -248,9 +252,16 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setCursorFetchSize(integerValueOf(props.getProperty("cursorFetchSize"), null));
+    configuration.setCursorPrefetchBatchSize(integerValueOf(props.getProperty("cursorPrefetchBatchSize"), 0));
+    configuration.setCursorPrefetchQueueSize(integerValueOf(props.getProperty("cursorPrefetchQueueSize"), 4));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setLocalCacheSize(integerValueOf(props.getProperty("localCacheSize"), 0));
+    configuration.setLocalCacheMaxBytes(longValueOf(props.getProperty("localCacheMaxBytes"), 0L));
+    configuration.setCacheWeigher((Weigher) createInstance(props.getProperty("cacheWeigher")));
+    configuration.setCacheStatisticsEnabled(booleanValueOf(props.getProperty("cacheStatisticsEnabled"), false));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
@@ -266,6 +277,20 @@ public class XMLConfigBuilder extends BaseBuilder {
     Class<? extends Log> logImpl = (Class<? extends Log>)resolveClass(props.getProperty("logImpl"));
     configuration.setLogImpl(logImpl);
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
+    configuration.setCompiledInterceptionEnabled(booleanValueOf(props.getProperty("compiledInterceptionEnabled"), false));
+    configuration.setMetricsCollector((MetricsCollector) createInstance(props.getProperty("metricsCollector")));
+    configuration.setTableLevelCacheInvalidationEnabled(booleanValueOf(props.getProperty("tableLevelCacheInvalidationEnabled"), false));
+    configuration.setCacheRefreshThreads(integerValueOf(props.getProperty("cacheRefreshThreads"), 2));
+    configuration.setCacheRefreshQueueSize(integerValueOf(props.getProperty("cacheRefreshQueueSize"), 64));
+    configuration.setCacheValueCodec((CacheValueCodec) createInstance(props.getProperty("cacheValueCodec")));
+    configuration.setCacheInvalidationTransport((CacheInvalidationTransport) createInstance(props.getProperty("cacheInvalidationTransport")));
+    configuration.setMultiRowInsertChunkSizes(intArrayValueOf(props.getProperty("multiRowInsertChunkSizes"), "256,64,16,1"));
+    configuration.setForeachChunkParallelism(integerValueOf(props.getProperty("foreachChunkParallelism"), 4));
+    configuration.setForeachChunkWorkers(integerValueOf(props.getProperty("foreachChunkWorkers"), 0));
+    String foreachArrayExpressions = props.getProperty("foreachArrayExpressions");
+    if (foreachArrayExpressions != null) {
+      configuration.setForeachArrayExpressions(stringMapValueOf(foreachArrayExpressions));
+    }
   }
 
   private void environmentsElement(XNode context) throws Exception {
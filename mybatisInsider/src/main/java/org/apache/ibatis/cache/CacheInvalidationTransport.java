@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Carries second level cache invalidations between application nodes that share a database.
+ * <p>
+ * {@link #publish(String, String, Object)} is called with the cache id and the removed key, or a {@code null} key
+ * when the whole cache was cleared. Implementations deliver each invalidation to the listeners subscribed on the
+ * other nodes; delivering it back to the publishing node is allowed, it is ignored there. Transports that leave the
+ * JVM must be able to serialize the keys, which for mapped statements are {@link CacheKey} instances.
+ * Implementations must be thread safe.
+ *
+ * @since 3.5.0
+ * @see org.apache.ibatis.cache.decorators.InvalidationBusCache
+ */
+public interface CacheInvalidationTransport {
+
+  void publish(String origin, String cacheId, Object key);
+
+  void subscribe(Listener listener);
+
+  /**
+   * Stops delivering invalidations to a listener passed to {@link #subscribe(Listener)}.
+   */
+  void unsubscribe(Listener listener);
+
+  interface Listener {
+
+    void onInvalidation(String origin, String cacheId, Object key);
+
+  }
+
+}
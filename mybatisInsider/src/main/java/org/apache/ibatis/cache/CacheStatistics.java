@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second level cache statistics per cache and per statement, kept in lock free counters so that recording never
+ * blocks or logs. Read them with {@link #snapshot()}.
+ *
+ * @since 3.5.0
+ * @see org.apache.ibatis.session.Configuration#setCacheStatisticsEnabled(boolean)
+ */
+public class CacheStatistics {
+
+  private final ConcurrentMap<String, CacheCounters> caches = new ConcurrentHashMap<>();
+
+  public void register(Cache cache) {
+    counters(cache.getId()).cache = cache;
+  }
+
+  public EvictionListener evictionListener(String cacheId) {
+    final CacheCounters counters = counters(cacheId);
+    return new EvictionListener() {
+      @Override
+      public void onEviction(Object key) {
+        counters.evictions.increment();
+      }
+    };
+  }
+
+  public void recordHit(Cache cache, String statementId) {
+    counters(cache.getId()).statement(statementId).hits.increment();
+  }
+
+  /**
+   * @param loadNanos time spent loading the missing value from the database
+   */
+  public void recordMiss(Cache cache, String statementId, long loadNanos) {
+    StatementCounters counters = counters(cache.getId()).statement(statementId);
+    counters.misses.increment();
+    counters.loadNanos.add(loadNanos);
+  }
+
+  /**
+   * @return snapshots keyed by cache id, which is the namespace that declared the cache
+   */
+  public Map<String, CacheStatisticsSnapshot> snapshot() {
+    Map<String, CacheStatisticsSnapshot> result = new TreeMap<>();
+    for (Map.Entry<String, CacheCounters> entry : caches.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    }
+    return result;
+  }
+
+  private CacheCounters counters(String cacheId) {
+    // get first, computeIfAbsent locks the bin even when the key is present
+    CacheCounters counters = caches.get(cacheId);
+    if (counters == null) {
+      counters = caches.computeIfAbsent(cacheId, k -> new CacheCounters());
+    }
+    return counters;
+  }
+
+  private static class CacheCounters {
+
+    private volatile Cache cache;
+    private final LongAdder evictions = new LongAdder();
+    private final ConcurrentMap<String, StatementCounters> statements = new ConcurrentHashMap<>();
+
+    StatementCounters statement(String statementId) {
+      StatementCounters counters = statements.get(statementId);
+      if (counters == null) {
+        counters = statements.computeIfAbsent(statementId, k -> new StatementCounters());
+      }
+      return counters;
+    }
+
+    CacheStatisticsSnapshot snapshot(String cacheId) {
+      Map<String, CacheStatisticsSnapshot.StatementStatistics> statementSnapshots = new TreeMap<>();
+      for (Map.Entry<String, StatementCounters> entry : statements.entrySet()) {
+        StatementCounters counters = entry.getValue();
+        statementSnapshots.put(entry.getKey(), new CacheStatisticsSnapshot.StatementStatistics(entry.getKey(),
+            counters.hits.sum(), counters.misses.sum(), counters.loadNanos.sum()));
+      }
+      Cache current = cache;
+      return new CacheStatisticsSnapshot(cacheId, current == null ? 0 : current.getSize(), evictions.sum(),
+          statementSnapshots);
+    }
+  }
+
+  private static class StatementCounters {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+  }
+
+}
@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point in time view of the statistics of one second level cache.
+ *
+ * @since 3.5.0
+ */
+public class CacheStatisticsSnapshot {
+
+  private final String cacheId;
+  private final int entryCount;
+  private final long evictions;
+  private final Map<String, StatementStatistics> statements;
+
+  public CacheStatisticsSnapshot(String cacheId, int entryCount, long evictions,
+      Map<String, StatementStatistics> statements) {
+    this.cacheId = cacheId;
+    this.entryCount = entryCount;
+    this.evictions = evictions;
+    this.statements = Collections.unmodifiableMap(statements);
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public long getHits() {
+    long hits = 0;
+    for (StatementStatistics statement : statements.values()) {
+      hits += statement.getHits();
+    }
+    return hits;
+  }
+
+  public long getMisses() {
+    long misses = 0;
+    for (StatementStatistics statement : statements.values()) {
+      misses += statement.getMisses();
+    }
+    return misses;
+  }
+
+  public long getSavedNanos() {
+    long saved = 0;
+    for (StatementStatistics statement : statements.values()) {
+      saved += statement.getSavedNanos();
+    }
+    return saved;
+  }
+
+  /**
+   * @return statistics keyed by mapped statement id
+   */
+  public Map<String, StatementStatistics> getStatements() {
+    return statements;
+  }
+
+  @Override
+  public String toString() {
+    return cacheId + " {entries=" + entryCount + ", evictions=" + evictions + ", hits=" + getHits()
+        + ", misses=" + getMisses() + ", savedMillis=" + getSavedNanos() / 1000000 + "}";
+  }
+
+  public static class StatementStatistics {
+
+    private final String statementId;
+    private final long hits;
+    private final long misses;
+    private final long loadNanos;
+
+    public StatementStatistics(String statementId, long hits, long misses, long loadNanos) {
+      this.statementId = statementId;
+      this.hits = hits;
+      this.misses = misses;
+      this.loadNanos = loadNanos;
+    }
+
+    public String getStatementId() {
+      return statementId;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    /**
+     * @return total time spent loading the values that were missing
+     */
+    public long getLoadNanos() {
+      return loadNanos;
+    }
+
+    /**
+     * @return estimated database time avoided by hits, at the average load time of the misses
+     */
+    public long getSavedNanos() {
+      return misses == 0 ? 0 : hits * (loadNanos / misses);
+    }
+
+    @Override
+    public String toString() {
+      return statementId + " {hits=" + hits + ", misses=" + misses + ", savedMillis=" + getSavedNanos() / 1000000 + "}";
+    }
+  }
+
+}
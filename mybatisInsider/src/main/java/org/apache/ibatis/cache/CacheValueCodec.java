@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Converts values stored by a read-write cache so that callers never share instances with the cache.
+ * <p>
+ * {@link #encode(Object)} is called with the value being put and returns the form kept by the underlying cache;
+ * {@link #decode(Object)} is called on every hit and returns the object handed to the caller.
+ * Implementations must be thread safe.
+ *
+ * @since 3.5.0
+ * @see org.apache.ibatis.cache.decorators.SerializedCache
+ */
+public interface CacheValueCodec {
+
+  Object encode(Object value);
+
+  Object decode(Object stored);
+
+}
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stand-in for a multicast transport: every instance joined to the same group receives the invalidations
+ * published by the others, synchronously on the publishing thread. Useful to run several configurations in one JVM
+ * as if they were separate nodes.
+ * <p>
+ * An instance created without a group only reaches its own subscribers, so configurations never share
+ * invalidations unless they join a group by name. Listeners are held weakly and dropped once their cache is no
+ * longer referenced, or when they unsubscribe. The group must be set before the first subscription.
+ *
+ * @since 3.5.0
+ */
+public class LoopbackInvalidationTransport implements CacheInvalidationTransport {
+
+  private static final ConcurrentMap<String, List<WeakReference<Listener>>> GROUPS = new ConcurrentHashMap<>();
+
+  private final List<WeakReference<Listener>> ownListeners = new CopyOnWriteArrayList<>();
+  private String group;
+
+  public LoopbackInvalidationTransport() {
+    this(null);
+  }
+
+  public LoopbackInvalidationTransport(String group) {
+    this.group = group;
+  }
+
+  @Override
+  public void publish(String origin, String cacheId, Object key) {
+    List<WeakReference<Listener>> listeners = listeners();
+    for (WeakReference<Listener> reference : listeners) {
+      Listener listener = reference.get();
+      if (listener == null) {
+        listeners.remove(reference);
+      } else {
+        listener.onInvalidation(origin, cacheId, key);
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    listeners().add(new WeakReference<>(listener));
+  }
+
+  @Override
+  public void unsubscribe(Listener listener) {
+    List<WeakReference<Listener>> listeners = listeners();
+    for (WeakReference<Listener> reference : listeners) {
+      Listener subscribed = reference.get();
+      if (subscribed == null || subscribed == listener) {
+        listeners.remove(reference);
+      }
+    }
+  }
+
+  public String getGroup() {
+    return group;
+  }
+
+  public void setGroup(String group) {
+    this.group = group;
+  }
+
+  private List<WeakReference<Listener>> listeners() {
+    if (group == null) {
+      return ownListeners;
+    }
+    List<WeakReference<Listener>> listeners = GROUPS.get(group);
+    if (listeners == null) {
+      listeners = new CopyOnWriteArrayList<>();
+      List<WeakReference<Listener>> previous = GROUPS.putIfAbsent(group, listeners);
+      if (previous != null) {
+        listeners = previous;
+      }
+    }
+    return listeners;
+  }
+
+}
@@ -0,0 +1,223 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Weighs result lists by walking the fields of a sample of their elements and extrapolating to the whole list.
+ * <p>
+ * Sizes assume a 64-bit JVM with compressed references. The layout of each result class is computed once. Fields are
+ * read directly rather than through getters so that lazy loading is never triggered; MyBatis internals reachable
+ * from result proxies are not counted.
+ *
+ * @since 3.5.0
+ */
+public class SamplingWeigher implements Weigher {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int MAX_DEPTH = 8;
+  private static final String[] INTERNAL_PACKAGES = {
+      "org.apache.ibatis.executor.", "org.apache.ibatis.session.", "org.apache.ibatis.reflection.",
+      "org.apache.ibatis.mapping.", "org.apache.ibatis.javassist.", "net.sf.cglib." };
+
+  private final ConcurrentMap<Class<?>, Layout> layouts = new ConcurrentHashMap<>();
+  private int sampleSize = 16;
+
+  @Override
+  public long weigh(Object value) {
+    return weigh(value, 0, new IdentityHashMap<>());
+  }
+
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  public void setSampleSize(int sampleSize) {
+    this.sampleSize = Math.max(1, sampleSize);
+  }
+
+  private long weigh(Object value, int depth, IdentityHashMap<Object, Boolean> seen) {
+    if (value == null || depth > MAX_DEPTH || value instanceof Enum || value instanceof Class
+        || seen.put(value, Boolean.TRUE) != null) {
+      return 0;
+    }
+    Class<?> type = value.getClass();
+    if (value instanceof String) {
+      return align(OBJECT_HEADER + 8) + align(ARRAY_HEADER + 2L * ((String) value).length());
+    } else if (type.isArray()) {
+      return weighArray(value, depth, seen);
+    } else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      // backing array or nodes of the usual list, set and queue implementations
+      return align(OBJECT_HEADER + 16) + align(ARRAY_HEADER + 4L * REFERENCE * collection.size() / 3)
+          + sample(collection, collection.size(), depth, seen);
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      return align(OBJECT_HEADER + 24) + 32L * map.size()
+          + sample(map.keySet(), map.size(), depth, seen) + sample(map.values(), map.size(), depth, seen);
+    } else if (value instanceof BigDecimal) {
+      return align(OBJECT_HEADER + 20) + align(OBJECT_HEADER + 24) + align(ARRAY_HEADER + ((BigDecimal) value).unscaledValue().bitLength() / 8);
+    } else if (value instanceof BigInteger) {
+      return align(OBJECT_HEADER + 24) + align(ARRAY_HEADER + ((BigInteger) value).bitLength() / 8);
+    }
+    Layout layout = layoutOf(type);
+    long size = layout.shallowSize;
+    for (Field field : layout.references) {
+      try {
+        Object fieldValue = field.get(value);
+        if (fieldValue != null && !isInternal(fieldValue.getClass())) {
+          size += weigh(fieldValue, depth + 1, seen);
+        }
+      } catch (IllegalAccessException e) {
+        // counted as a reference only
+      }
+    }
+    return size;
+  }
+
+  private long weighArray(Object array, int depth, IdentityHashMap<Object, Boolean> seen) {
+    int length = Array.getLength(array);
+    Class<?> componentType = array.getClass().getComponentType();
+    if (componentType.isPrimitive()) {
+      return align(ARRAY_HEADER + (long) primitiveSize(componentType) * length);
+    }
+    List<Object> elements = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      elements.add(Array.get(array, i));
+    }
+    return align(ARRAY_HEADER + (long) REFERENCE * length) + sample(elements, length, depth, seen);
+  }
+
+  /**
+   * Weighs up to {@code sampleSize} evenly spaced elements and scales the result to the element count.
+   */
+  private long sample(Collection<?> elements, int count, int depth, IdentityHashMap<Object, Boolean> seen) {
+    if (count == 0) {
+      return 0;
+    }
+    int stride = Math.max(1, count / sampleSize);
+    long sampledSize = 0;
+    int sampled = 0;
+    if (elements instanceof List && elements instanceof RandomAccess) {
+      List<?> list = (List<?>) elements;
+      for (int i = 0; i < count && sampled < sampleSize; i += stride, sampled++) {
+        sampledSize += weigh(list.get(i), depth + 1, seen);
+      }
+    } else {
+      Iterator<?> iterator = elements.iterator();
+      for (int i = 0; iterator.hasNext() && sampled < sampleSize; i++) {
+        Object element = iterator.next();
+        if (i % stride == 0) {
+          sampledSize += weigh(element, depth + 1, seen);
+          sampled++;
+        }
+      }
+    }
+    return sampled == count ? sampledSize : sampledSize * count / sampled;
+  }
+
+  private Layout layoutOf(Class<?> type) {
+    Layout layout = layouts.get(type);
+    if (layout == null) {
+      layout = new Layout(type);
+      Layout previous = layouts.putIfAbsent(type, layout);
+      if (previous != null) {
+        layout = previous;
+      }
+    }
+    return layout;
+  }
+
+  private static boolean isInternal(Class<?> type) {
+    String name = type.getName();
+    for (String internalPackage : INTERNAL_PACKAGES) {
+      if (name.startsWith(internalPackage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+  private static class Layout {
+
+    private final long shallowSize;
+    private final Field[] references;
+
+    Layout(Class<?> type) {
+      long fieldBytes = 0;
+      List<Field> referenceFields = new ArrayList<>();
+      // JDK classes are not walked: their internals are opaque and mostly small value types
+      boolean walk = Reflector.canControlMemberAccessible() && !type.getName().startsWith("java.")
+          && !type.getName().startsWith("javax.") && !isInternal(type);
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          if (field.getType().isPrimitive()) {
+            fieldBytes += primitiveSize(field.getType());
+          } else {
+            fieldBytes += REFERENCE;
+            if (walk) {
+              try {
+                field.setAccessible(true);
+                referenceFields.add(field);
+              } catch (RuntimeException e) {
+                // not accessible, counted as a reference only
+              }
+            }
+          }
+        }
+      }
+      this.shallowSize = align(OBJECT_HEADER + fieldBytes);
+      this.references = referenceFields.toArray(new Field[referenceFields.size()]);
+    }
+  }
+
+}
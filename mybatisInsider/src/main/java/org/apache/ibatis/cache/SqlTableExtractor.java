@@ -0,0 +1,197 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Best effort extraction of the tables a SQL statement reads or writes.
+ * <p>
+ * This is not a SQL parser: it tokenizes the statement, ignoring literals and comments, and picks the identifiers that
+ * follow {@code FROM}, {@code JOIN}, {@code INTO}, {@code UPDATE} and {@code TABLE}. Names are lower cased and reduced
+ * to their last segment, so {@code "Sales".Orders} and {@code orders} are the same table. Tables the statement
+ * reaches indirectly, through a view, a trigger or a stored function, are not seen: statements that read or write
+ * through them must declare every table they depend on with {@code tables="..."}, or their entries can be left stale.
+ */
+class SqlTableExtractor {
+
+  private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+      "where", "group", "order", "having", "limit", "offset", "fetch", "union", "intersect", "except", "minus",
+      "join", "inner", "left", "right", "full", "outer", "cross", "natural", "on", "using", "set", "values",
+      "select", "window", "for", "connect", "start", "returning", "lateral"));
+
+  private SqlTableExtractor() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Returns every table referenced by the statement, or an empty set if none was recognized.
+   */
+  static Set<String> referencedTables(String sql) {
+    List<String> tokens = tokenize(sql);
+    Set<String> tables = new LinkedHashSet<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      if ("from".equals(token)) {
+        i = readTableList(tokens, i + 1, tables);
+      } else if ("join".equals(token) || "into".equals(token) || "table".equals(token)
+          || "update".equals(token) && !isLockingClause(tokens, i)) {
+        addTable(tokens, i + 1, tables);
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Returns the tables modified by an insert, update, delete, merge or truncate statement, or an empty set if the
+   * statement is not recognized as one of those.
+   */
+  static Set<String> modifiedTables(String sql) {
+    List<String> tokens = tokenize(sql);
+    Set<String> tables = new LinkedHashSet<>();
+    for (int i = 0; i < tokens.size() - 1; i++) {
+      String token = tokens.get(i);
+      String next = tokens.get(i + 1);
+      if (("insert".equals(token) || "merge".equals(token) || "replace".equals(token) || "upsert".equals(token))
+          && "into".equals(next)) {
+        addTable(tokens, i + 2, tables);
+      } else if ("update".equals(token) && !isLockingClause(tokens, i)) {
+        addTable(tokens, i + 1, tables);
+      } else if ("delete".equals(token)) {
+        addTable(tokens, "from".equals(next) ? i + 2 : i + 1, tables);
+      } else if ("truncate".equals(token)) {
+        addTable(tokens, "table".equals(next) ? i + 2 : i + 1, tables);
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * {@code FOR UPDATE} and {@code ON DUPLICATE KEY UPDATE} do not name a table.
+   */
+  private static boolean isLockingClause(List<String> tokens, int index) {
+    String previous = index == 0 ? null : tokens.get(index - 1);
+    return "for".equals(previous) || "key".equals(previous);
+  }
+
+  private static int readTableList(List<String> tokens, int index, Set<String> tables) {
+    int i = index;
+    while (i < tokens.size()) {
+      if (!addTable(tokens, i, tables)) {
+        return i - 1;
+      }
+      i++;
+      // skip an optional alias
+      if (i < tokens.size() && "as".equals(tokens.get(i))) {
+        i++;
+      }
+      if (i < tokens.size() && isIdentifier(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))) {
+        i++;
+      }
+      if (i < tokens.size() && ",".equals(tokens.get(i))) {
+        i++;
+      } else {
+        return i - 1;
+      }
+    }
+    return i;
+  }
+
+  private static boolean addTable(List<String> tokens, int index, Set<String> tables) {
+    if (index >= tokens.size()) {
+      return false;
+    }
+    String token = tokens.get(index);
+    if (!isIdentifier(token) || CLAUSE_KEYWORDS.contains(token)) {
+      return false;
+    }
+    int dot = token.lastIndexOf('.');
+    tables.add(dot < 0 ? token : token.substring(dot + 1));
+    return true;
+  }
+
+  private static boolean isIdentifier(String token) {
+    char c = token.charAt(0);
+    return Character.isLetter(c) || c == '_' || c == '$';
+  }
+
+  private static List<String> tokenize(String sql) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    int length = sql.length();
+    for (int i = 0; i < length; i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+        flush(current, tokens);
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        int end = sql.indexOf('\n', i);
+        i = end < 0 ? length : end;
+        flush(current, tokens);
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 1;
+        flush(current, tokens);
+      } else if (c == '"' || c == '`' || c == '[') {
+        char close = c == '[' ? ']' : c;
+        int end = sql.indexOf(close, i + 1);
+        if (end < 0) {
+          end = length - 1;
+        }
+        current.append(sql, i + 1, end);
+        i = end;
+      } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.') {
+        current.append(c);
+      } else {
+        flush(current, tokens);
+        if (c == ',' || c == '(' || c == ')') {
+          tokens.add(String.valueOf(c));
+        }
+      }
+    }
+    flush(current, tokens);
+    return tokens;
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static void flush(StringBuilder current, List<String> tokens) {
+    if (current.length() > 0) {
+      tokens.add(current.toString().toLowerCase(Locale.ENGLISH));
+      current.setLength(0);
+    }
+  }
+
+}
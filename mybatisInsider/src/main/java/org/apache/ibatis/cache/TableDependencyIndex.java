@@ -0,0 +1,224 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.RefreshingCache;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Tracks which second level cache entries depend on which tables, so that a write only invalidates the entries of
+ * statements that read the written tables, whatever namespace they belong to.
+ * <p>
+ * Tables come from the {@code tables} attribute of a statement or, when it is not declared, are inferred from its SQL.
+ * Entries of queries whose tables are unknown are invalidated by every write. Writes whose tables are unknown fall
+ * back to clearing the cache of their own namespace.
+ * <p>
+ * A dependency is registered when its entry is stored in the cache, and is kept until the entry is evicted or the
+ * cache is cleared, as reported by the {@link #evictionListener(String) eviction listener}; writes do not remove it,
+ * since a transaction may store the key again after the write looked it up. Caches without an eviction policy that
+ * reports to the listener never release their keys. The keys tracked for one table and cache are bounded; past the
+ * limit that table clears the whole cache on writes until the cache is cleared.
+ * Blocking caches are always cleared as a whole because their {@code removeObject} only releases locks.
+ *
+ * @since 3.5.0
+ */
+public class TableDependencyIndex {
+
+  public static final String ANY_TABLE = "*";
+
+  private static final int MAX_PARSED_STATEMENTS = 1024;
+
+  private final int maxKeysPerTable;
+  private final ConcurrentMap<String, ConcurrentMap<Cache, Dependents>> dependencies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<Dependents>> dependentsByCacheId = new ConcurrentHashMap<>();
+  private final ConcurrentMap<MappedStatement, Set<String>> declaredTables = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<String>> readTablesBySql = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<String>> writeTablesBySql = new ConcurrentHashMap<>();
+
+  public TableDependencyIndex() {
+    this(10000);
+  }
+
+  public TableDependencyIndex(int maxKeysPerTable) {
+    this.maxKeysPerTable = maxKeysPerTable;
+  }
+
+  /**
+   * Returns the tables read by a query, or a set holding {@link #ANY_TABLE} if they are unknown.
+   */
+  public Set<String> readTables(MappedStatement ms, BoundSql boundSql) {
+    if (ms.getTables() != null) {
+      return declaredTables(ms);
+    }
+    Set<String> tables = parse(boundSql.getSql(), readTablesBySql, false);
+    return tables.isEmpty() ? Collections.singleton(ANY_TABLE) : tables;
+  }
+
+  /**
+   * Returns the tables modified by a write, or {@code null} if they are unknown.
+   * The bound SQL is only used when the statement does not declare its tables and may be {@code null} otherwise.
+   */
+  public Set<String> writeTables(MappedStatement ms, BoundSql boundSql) {
+    if (ms.getTables() != null) {
+      return declaredTables(ms);
+    }
+    Set<String> tables = parse(boundSql.getSql(), writeTablesBySql, true);
+    return tables.isEmpty() ? null : tables;
+  }
+
+  public void register(Set<String> tables, Cache cache, Object key) {
+    for (String table : tables) {
+      ConcurrentMap<Cache, Dependents> byCache = dependencies.get(table);
+      if (byCache == null) {
+        byCache = dependencies.computeIfAbsent(table, k -> new ConcurrentHashMap<>());
+      }
+      Dependents dependents = byCache.get(cache);
+      if (dependents == null) {
+        dependents = byCache.computeIfAbsent(cache, k -> {
+          Dependents created = new Dependents();
+          dependentsByCacheId.computeIfAbsent(k.getId(), id -> ConcurrentHashMap.newKeySet()).add(created);
+          return created;
+        });
+      }
+      dependents.add(key, maxKeysPerTable);
+    }
+  }
+
+  /**
+   * Schedules the removal of every entry that depends on one of the given tables, or on an unknown table, when the
+   * transaction commits.
+   */
+  public void invalidate(Set<String> tables, TransactionalCacheManager tcm) {
+    invalidate(ANY_TABLE, tcm);
+    for (String table : tables) {
+      invalidate(table, tcm);
+    }
+  }
+
+  private void invalidate(String table, TransactionalCacheManager tcm) {
+    ConcurrentMap<Cache, Dependents> byCache = dependencies.get(table);
+    if (byCache == null) {
+      return;
+    }
+    for (Map.Entry<Cache, Dependents> entry : byCache.entrySet()) {
+      Cache cache = entry.getKey();
+      Dependents dependents = entry.getValue();
+      if (dependents.overflowed || isBlocking(cache)) {
+        tcm.clear(cache);
+      } else {
+        for (Object key : dependents.keys) {
+          tcm.invalidate(cache, key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a listener that releases the keys of the cache with the given id when its eviction policy drops them or
+   * when it is cleared.
+   */
+  public EvictionListener evictionListener(final String cacheId) {
+    return new EvictionListener() {
+      @Override
+      public void onEviction(Object key) {
+        Set<Dependents> cacheDependents = dependentsByCacheId.get(cacheId);
+        if (cacheDependents != null) {
+          for (Dependents dependents : cacheDependents) {
+            dependents.keys.remove(key);
+          }
+        }
+      }
+
+      @Override
+      public void onClear() {
+        Set<Dependents> cacheDependents = dependentsByCacheId.get(cacheId);
+        if (cacheDependents != null) {
+          for (Dependents dependents : cacheDependents) {
+            dependents.reset();
+          }
+        }
+      }
+    };
+  }
+
+  private static boolean isBlocking(Cache cache) {
+    if (cache instanceof RefreshingCache) {
+      cache = ((RefreshingCache) cache).getDelegate();
+    }
+    return cache instanceof BlockingCache;
+  }
+
+  private Set<String> parse(String sql, ConcurrentMap<String, Set<String>> parsed, boolean write) {
+    Set<String> tables = parsed.get(sql);
+    if (tables == null) {
+      tables = Collections.unmodifiableSet(
+          write ? SqlTableExtractor.modifiedTables(sql) : SqlTableExtractor.referencedTables(sql));
+      if (parsed.size() >= MAX_PARSED_STATEMENTS) {
+        parsed.clear();
+      }
+      parsed.put(sql, tables);
+    }
+    return tables;
+  }
+
+  private Set<String> declaredTables(MappedStatement ms) {
+    Set<String> tables = declaredTables.get(ms);
+    if (tables == null) {
+      tables = new HashSet<>();
+      for (String table : ms.getTables()) {
+        String name = table.trim().toLowerCase(Locale.ENGLISH);
+        int dot = name.lastIndexOf('.');
+        tables.add(dot < 0 ? name : name.substring(dot + 1));
+      }
+      tables = Collections.unmodifiableSet(tables);
+      declaredTables.put(ms, tables);
+    }
+    return tables;
+  }
+
+  private static class Dependents {
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private volatile boolean overflowed;
+
+    void add(Object key, int maxKeys) {
+      if (overflowed) {
+        return;
+      }
+      if (keys.size() >= maxKeys) {
+        overflowed = true;
+        keys.clear();
+      } else {
+        keys.add(key);
+      }
+    }
+
+    void reset() {
+      keys.clear();
+      overflowed = false;
+    }
+  }
+
+}
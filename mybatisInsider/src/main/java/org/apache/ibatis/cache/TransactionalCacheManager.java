@@ -17,6 +17,7 @@ package org.apache.ibatis.cache;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
@@ -31,6 +32,14 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).clear();
   }
 
+  /**
+   * Removes a single entry from the cache when the transaction ends.
+   * @since 3.5.0
+   */
+  public void invalidate(Cache cache, Object key) {
+    getTransactionalCache(cache).invalidate(key);
+  }
+
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
@@ -39,6 +48,14 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * Puts an entry whose dependency on the given tables is registered in the index once the entry is stored.
+   * @since 3.5.0
+   */
+  public void putObject(Cache cache, CacheKey key, Object value, TableDependencyIndex index, Set<String> tables) {
+    getTransactionalCache(cache).putObject(key, value, index, tables);
+  }
+
   public void commit() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
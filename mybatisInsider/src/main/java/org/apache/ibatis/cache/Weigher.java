@@ -0,0 +1,30 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Estimates how many bytes of heap a cached value retains, so that caches can be bounded by size instead of by
+ * entry count. Estimates only need to be good enough to compare entries and enforce budgets.
+ * Implementations must be thread safe.
+ *
+ * @since 3.5.0
+ * @see SamplingWeigher
+ */
+public interface Weigher {
+
+  long weigh(Object value);
+
+}
@@ -0,0 +1,282 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheValueCodec;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Copies values field by field instead of going through a byte stream.
+ * <p>
+ * Immutable JDK values are shared, arrays, dates and the common collection types are rebuilt, and other objects are
+ * instantiated through their no-argument constructor and have their non-static, non-transient fields copied, which
+ * mirrors what Java serialization restores. Objects that customize serialization ({@code writeReplace},
+ * {@code writeObject}, {@link Externalizable}, ...), lack a no-argument constructor or are JDK internals are copied
+ * with Java serialization instead. Shared references and cycles are preserved.
+ *
+ * @since 3.5.0
+ */
+public class DeepCopyCodec implements CacheValueCodec {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.<Class<?>>asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class, Locale.class, Class.class));
+
+  private final ConcurrentMap<Class<?>, ClassCopier> copiers = new ConcurrentHashMap<>();
+
+  @Override
+  public Object encode(Object value) {
+    return copy(value);
+  }
+
+  @Override
+  public Object decode(Object stored) {
+    return copy(stored);
+  }
+
+  public Object copy(Object value) {
+    try {
+      return copy(value, new IdentityHashMap<>());
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error copying object.  Cause: " + e, e);
+    }
+  }
+
+  private Object copy(Object value, IdentityHashMap<Object, Object> copies) throws Exception {
+    if (value == null || isImmutable(value.getClass())) {
+      return value;
+    }
+    Object copy = copies.get(value);
+    if (copy != null) {
+      return copy;
+    }
+    Class<?> type = value.getClass();
+    if (type.isArray()) {
+      return copyArray(value, type, copies);
+    } else if (value instanceof Date) {
+      copy = ((Date) value).clone();
+      copies.put(value, copy);
+      return copy;
+    } else if (isPlainCollection(type)) {
+      Collection<Object> collection = newCollection(value, type);
+      copies.put(value, collection);
+      for (Object element : (Collection<?>) value) {
+        collection.add(copy(element, copies));
+      }
+      return collection;
+    } else if (isPlainMap(type)) {
+      Map<Object, Object> map = newMap(value, type);
+      copies.put(value, map);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        map.put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+      }
+      return map;
+    }
+    return copierFor(type).copy(value, copies);
+  }
+
+  private Object copyArray(Object value, Class<?> type, IdentityHashMap<Object, Object> copies) throws Exception {
+    int length = Array.getLength(value);
+    Class<?> componentType = type.getComponentType();
+    if (componentType.isPrimitive()) {
+      Object copy = Array.newInstance(componentType, length);
+      System.arraycopy(value, 0, copy, 0, length);
+      copies.put(value, copy);
+      return copy;
+    }
+    Object[] source = (Object[]) value;
+    Object[] copy = (Object[]) Array.newInstance(componentType, length);
+    copies.put(value, copy);
+    for (int i = 0; i < length; i++) {
+      copy[i] = copy(source[i], copies);
+    }
+    return copy;
+  }
+
+  private static boolean isImmutable(Class<?> type) {
+    return IMMUTABLE_TYPES.contains(type)
+        || type.isEnum()
+        || type.getSuperclass() != null && type.getSuperclass().isEnum()
+        || type.getName().startsWith("java.time.");
+  }
+
+  private static boolean isPlainCollection(Class<?> type) {
+    return type == ArrayList.class || type == LinkedList.class || type == HashSet.class
+        || type == LinkedHashSet.class || type == TreeSet.class || type == ArrayDeque.class;
+  }
+
+  private static boolean isPlainMap(Class<?> type) {
+    return type == HashMap.class || type == LinkedHashMap.class || type == TreeMap.class;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> newCollection(Object value, Class<?> type) {
+    if (type == ArrayList.class) {
+      return new ArrayList<>(((Collection<?>) value).size());
+    } else if (type == LinkedList.class) {
+      return new LinkedList<>();
+    } else if (type == HashSet.class) {
+      return new HashSet<>();
+    } else if (type == LinkedHashSet.class) {
+      return new LinkedHashSet<>();
+    } else if (type == TreeSet.class) {
+      return new TreeSet<>(((TreeSet<Object>) value).comparator());
+    }
+    return new ArrayDeque<>();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> newMap(Object value, Class<?> type) {
+    if (type == HashMap.class) {
+      return new HashMap<>();
+    } else if (type == LinkedHashMap.class) {
+      return new LinkedHashMap<>();
+    }
+    return new TreeMap<>(((TreeMap<Object, Object>) value).comparator());
+  }
+
+  private ClassCopier copierFor(Class<?> type) {
+    ClassCopier copier = copiers.get(type);
+    if (copier == null) {
+      copier = new ClassCopier(type);
+      ClassCopier existing = copiers.putIfAbsent(type, copier);
+      if (existing != null) {
+        copier = existing;
+      }
+    }
+    return copier;
+  }
+
+  private class ClassCopier {
+
+    private final Constructor<?> constructor;
+    private final Field[] fields;
+
+    ClassCopier(Class<?> type) {
+      Constructor<?> resolvedConstructor = null;
+      Field[] resolvedFields = null;
+      if (isFieldCopyable(type)) {
+        try {
+          resolvedConstructor = type.getDeclaredConstructor();
+          List<Field> copied = new ArrayList<>();
+          for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+              int modifiers = field.getModifiers();
+              if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                field.setAccessible(true);
+                copied.add(field);
+              }
+            }
+          }
+          resolvedConstructor.setAccessible(true);
+          resolvedFields = copied.toArray(new Field[copied.size()]);
+        } catch (Exception e) {
+          resolvedConstructor = null;
+          resolvedFields = null;
+        }
+      }
+      this.constructor = resolvedConstructor;
+      this.fields = resolvedFields;
+    }
+
+    Object copy(Object value, IdentityHashMap<Object, Object> copies) throws Exception {
+      if (constructor == null) {
+        if (!(value instanceof Serializable)) {
+          throw new CacheException("Cannot copy an instance of " + value.getClass().getName()
+              + ": it has no no-argument constructor and is not serializable");
+        }
+        Object copy = SerializationCodec.deserialize(SerializationCodec.serialize((Serializable) value));
+        copies.put(value, copy);
+        return copy;
+      }
+      Object copy = constructor.newInstance(NO_ARGUMENTS);
+      copies.put(value, copy);
+      for (Field field : fields) {
+        Class<?> fieldType = field.getType();
+        if (fieldType.isPrimitive()) {
+          field.set(copy, field.get(value));
+        } else {
+          field.set(copy, DeepCopyCodec.this.copy(field.get(value), copies));
+        }
+      }
+      return copy;
+    }
+
+    private boolean isFieldCopyable(Class<?> type) {
+      if (!Reflector.canControlMemberAccessible()
+          || Externalizable.class.isAssignableFrom(type)
+          || type.isSynthetic()
+          || type.getName().startsWith("java.")
+          || type.getName().startsWith("javax.")
+          || type.getName().startsWith("sun.")) {
+        return false;
+      }
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        if (declaresSerializationHook(current)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean declaresSerializationHook(Class<?> type) {
+      for (Method method : type.getDeclaredMethods()) {
+        String name = method.getName();
+        if (("writeObject".equals(name) || "readObject".equals(name)) && method.getParameterTypes().length == 1
+            || ("writeReplace".equals(name) || "readResolve".equals(name)) && method.getParameterTypes().length == 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.ibatis.cache.CacheValueCodec;
+
+/**
+ * Stores values without copying their elements. Result lists, sets and maps are copied once and wrapped as
+ * unmodifiable views, so that neither the caller that stored them nor the ones that read them can alter the cached
+ * entry, but the cached elements themselves are shared and must be treated as immutable.
+ *
+ * @since 3.5.0
+ */
+public class SnapshotCodec implements CacheValueCodec {
+
+  @Override
+  public Object encode(Object value) {
+    if (value instanceof List) {
+      return Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+    } else if (value instanceof SortedSet) {
+      return Collections.unmodifiableSortedSet(new TreeSet<>((SortedSet<?>) value));
+    } else if (value instanceof Set) {
+      return Collections.unmodifiableSet(new LinkedHashSet<>((Set<?>) value));
+    } else if (value instanceof SortedMap) {
+      return Collections.unmodifiableSortedMap(new TreeMap<>((SortedMap<?, ?>) value));
+    } else if (value instanceof Map) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) value));
+    }
+    return value;
+  }
+
+  @Override
+  public Object decode(Object stored) {
+    return stored;
+  }
+
+}
@@ -15,8 +15,12 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -30,6 +34,10 @@ import org.apache.ibatis.cache.CacheException;
  * Simple and inefficient version of EhCache's BlockingCache decorator.
  * It sets a lock over a cache key when the element is not found in cache.
  * This way, other threads will wait until this element is filled instead of hitting the database.
+ * <p>
+ * In coalescing mode the first thread that misses a key loads it, and concurrent misses for the same key wait for
+ * that single in-flight load instead of a lock. In-flight loads are forgotten as soon as they complete, so the mode
+ * does not keep an entry for every key ever requested.
  * 
  * @author Eduardo Macarron
  *
@@ -39,10 +47,14 @@ public class BlockingCache implements Cache {
   private long timeout;
   private final Cache delegate;
   private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, Flight> flights;
+  private final LongAdder coalescedLoads = new LongAdder();
+  private boolean coalescing;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
     this.locks = new ConcurrentHashMap<>();
+    this.flights = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -60,12 +72,19 @@ public class BlockingCache implements Cache {
     try {
       delegate.putObject(key, value);
     } finally {
-      releaseLock(key);
+      if (coalescing) {
+        land(key);
+      } else {
+        releaseLock(key);
+      }
     }
   }
 
   @Override
   public Object getObject(Object key) {
+    if (coalescing) {
+      return getCoalesced(key);
+    }
     acquireLock(key);
     Object value = delegate.getObject(key);
     if (value != null) {
@@ -77,7 +96,11 @@ public class BlockingCache implements Cache {
   @Override
   public Object removeObject(Object key) {
     // despite of its name, this method is called only to release locks
-    releaseLock(key);
+    if (coalescing) {
+      land(key);
+    } else {
+      releaseLock(key);
+    }
     return null;
   }
 
@@ -120,11 +143,95 @@ public class BlockingCache implements Cache {
     }
   }
 
+  private Object getCoalesced(Object key) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    boolean counted = false;
+    while (true) {
+      Object value = delegate.getObject(key);
+      if (value != null) {
+        return value;
+      }
+      Flight flight = new Flight();
+      Flight inFlight = flights.putIfAbsent(key, flight);
+      if (inFlight == null) {
+        // the previous load may have landed between the miss and the claim
+        value = delegate.getObject(key);
+        if (value != null) {
+          land(key);
+        }
+        return value;
+      }
+      if (inFlight.owner == Thread.currentThread()) {
+        return null;
+      }
+      if (!counted) {
+        coalescedLoads.increment();
+        counted = true;
+      }
+      // the value is read again from the delegate, so that every waiter gets its own copy where the delegate makes
+      // one; if the loader rolled back or found nothing, the next round loads it here
+      await(key, inFlight, deadline);
+    }
+  }
+
+  private void await(Object key, Flight flight, long deadline) {
+    try {
+      if (timeout > 0) {
+        flight.landed.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } else {
+        flight.landed.get();
+      }
+    } catch (TimeoutException e) {
+      throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    } catch (ExecutionException e) {
+      throw new CacheException("Error waiting for the load of key " + key + ".  Cause: " + e, e);
+    }
+  }
+
+  private void land(Object key) {
+    Flight flight = flights.get(key);
+    if (flight != null && flight.owner == Thread.currentThread() && flights.remove(key, flight)) {
+      flight.landed.complete(null);
+    }
+  }
+
   public long getTimeout() {
     return timeout;
   }
 
   public void setTimeout(long timeout) {
     this.timeout = timeout;
-  }  
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isCoalescing() {
+    return coalescing;
+  }
+
+  /**
+   * Enable single-flight loading. Must be set before the cache is used.
+   * @since 3.5.0
+   */
+  public void setCoalescing(boolean coalescing) {
+    this.coalescing = coalescing;
+  }
+
+  /**
+   * @return the number of misses that waited for a load started by another thread instead of querying the database
+   * @since 3.5.0
+   */
+  public long getCoalescedLoads() {
+    return coalescedLoads.sum();
+  }
+
+  private static final class Flight {
+    private final Thread owner = Thread.currentThread();
+    // only signals the end of the load, the value itself is never handed to waiters
+    private final CompletableFuture<Void> landed = new CompletableFuture<>();
+  }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import java.util.LinkedList;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
 
 /**
  * FIFO (first in, first out) cache decorator
@@ -31,6 +32,7 @@ public class FifoCache implements Cache {
   private final Cache delegate;
   private final Deque<Object> keyList;
   private int size;
+  private EvictionListener evictionListener;
 
   public FifoCache(Cache delegate) {
     this.delegate = delegate;
@@ -52,6 +54,13 @@ public class FifoCache implements Cache {
     this.size = size;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public void setEvictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     cycleKeyList(key);
@@ -72,6 +81,9 @@ public class FifoCache implements Cache {
   public void clear() {
     delegate.clear();
     keyList.clear();
+    if (evictionListener != null) {
+      evictionListener.onClear();
+    }
   }
 
   @Override
@@ -84,6 +96,9 @@ public class FifoCache implements Cache {
     if (keyList.size() > size) {
       Object oldestKey = keyList.removeFirst();
       delegate.removeObject(oldestKey);
+      if (evictionListener != null) {
+        evictionListener.onEviction(oldestKey);
+      }
     }
   }
 
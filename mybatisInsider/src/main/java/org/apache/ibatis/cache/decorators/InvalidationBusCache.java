@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
+
+/**
+ * Keeps the caches of several nodes consistent by publishing every local removal and clear to a
+ * {@link CacheInvalidationTransport}, and applying the ones published by the other nodes.
+ * <p>
+ * Transactional caches remove and clear entries only on commit, so nodes are told about a write once it has been
+ * committed. Invalidations received from other nodes are applied to the local cache without being published again.
+ *
+ * @since 3.5.0
+ */
+public class InvalidationBusCache implements Cache, CacheInvalidationTransport.Listener {
+
+  private final Cache delegate;
+  private final CacheInvalidationTransport transport;
+  private final String origin = UUID.randomUUID().toString();
+
+  public InvalidationBusCache(Cache delegate, CacheInvalidationTransport transport) {
+    this.delegate = delegate;
+    this.transport = transport;
+    transport.subscribe(this);
+  }
+
+  /**
+   * Stops applying the invalidations of other nodes, e.g. when the configuration holding this cache is discarded.
+   * Local removals are still published.
+   */
+  public void unsubscribe() {
+    transport.unsubscribe(this);
+  }
+
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object removed = delegate.removeObject(key);
+    transport.publish(origin, getId(), key);
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    transport.publish(origin, getId(), null);
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public void onInvalidation(String origin, String cacheId, Object key) {
+    if (this.origin.equals(origin) || !getId().equals(cacheId)) {
+      return;
+    }
+    if (key == null) {
+      delegate.clear();
+    } else {
+      delegate.removeObject(key);
+    }
+  }
+
+}
@@ -15,14 +15,21 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.SamplingWeigher;
+import org.apache.ibatis.cache.Weigher;
 
 /**
  * Lru (least recently used) cache decorator
+ * <p>
+ * Bounded by entry count, and optionally by the approximate size of the values stored in the cache below it.
  *
  * @author Clinton Begin
  */
@@ -31,6 +38,11 @@ public class LruCache implements Cache {
   private final Cache delegate;
   private Map<Object, Object> keyMap;
   private Object eldestKey;
+  private long maxBytes;
+  private Weigher weigher = new SamplingWeigher();
+  private Map<Object, Long> weights;
+  private long bytes;
+  private EvictionListener evictionListener;
 
   public LruCache(Cache delegate) {
     this.delegate = delegate;
@@ -62,10 +74,37 @@ public class LruCache implements Cache {
     };
   }
 
+  /**
+   * @param maxBytes approximate number of bytes the cached values may retain; {@code 0} disables the limit
+   * @since 3.5.0
+   */
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.weights = maxBytes > 0 ? new HashMap<>() : null;
+    this.bytes = 0;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setWeigher(Weigher weigher) {
+    this.weigher = weigher;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setEvictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     delegate.putObject(key, value);
     cycleKeyList(key);
+    if (weights != null) {
+      addWeight(key, value);
+    }
   }
 
   @Override
@@ -76,6 +115,9 @@ public class LruCache implements Cache {
 
   @Override
   public Object removeObject(Object key) {
+    if (weights != null) {
+      removeWeight(key);
+    }
     return delegate.removeObject(key);
   }
 
@@ -83,6 +125,13 @@ public class LruCache implements Cache {
   public void clear() {
     delegate.clear();
     keyMap.clear();
+    if (weights != null) {
+      weights.clear();
+      bytes = 0;
+    }
+    if (evictionListener != null) {
+      evictionListener.onClear();
+    }
   }
 
   @Override
@@ -94,8 +143,37 @@ public class LruCache implements Cache {
     keyMap.put(key, key);
     if (eldestKey != null) {
       delegate.removeObject(eldestKey);
+      if (weights != null) {
+        removeWeight(eldestKey);
+      }
+      if (evictionListener != null) {
+        evictionListener.onEviction(eldestKey);
+      }
       eldestKey = null;
     }
   }
 
+  private void addWeight(Object key, Object value) {
+    long weight = weigher.weigh(value);
+    Long previous = weights.put(key, weight);
+    bytes += previous == null ? weight : weight - previous;
+    Iterator<Object> eldest = keyMap.keySet().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      Object evicted = eldest.next();
+      eldest.remove();
+      delegate.removeObject(evicted);
+      removeWeight(evicted);
+      if (evictionListener != null) {
+        evictionListener.onEviction(evicted);
+      }
+    }
+  }
+
+  private void removeWeight(Object key) {
+    Long weight = weights.remove(key);
+    if (weight != null) {
+      bytes -= weight;
+    }
+  }
+
 }
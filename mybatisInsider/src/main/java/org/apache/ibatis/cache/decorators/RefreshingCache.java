@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Stale-while-revalidate decorator. Every entry remembers when it was loaded; once it is older than the refresh
+ * interval it is still returned, and the first reader is allowed to reload it in the background.
+ * <p>
+ * The reader that sees a stale entry claims its refresh, then calls {@link #beginRefresh(Object)} and finally
+ * {@link #completeRefresh(Object, Object, long)} or {@link #cancelRefresh(Object)}. Only one refresh per key runs at a
+ * time, and a refreshed value is dropped if the cache was cleared or had entries removed while it was loading.
+ *
+ * @since 3.5.0
+ * @see org.apache.ibatis.executor.CachingExecutor
+ */
+public class RefreshingCache implements Cache {
+
+  private static final Object RUNNING = new Object();
+
+  private final Cache delegate;
+  private final ConcurrentMap<Object, Object> refreshes = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private long refreshInterval;
+
+  public RefreshingCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value == null ? null : new Entry(value, System.currentTimeMillis()));
+    refreshes.remove(key);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object stored = delegate.getObject(key);
+    if (!(stored instanceof Entry)) {
+      return stored;
+    }
+    Entry entry = (Entry) stored;
+    if (System.currentTimeMillis() - entry.loadedAt >= refreshInterval) {
+      claimRefresh(key);
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    generation.incrementAndGet();
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    generation.incrementAndGet();
+    refreshes.clear();
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /**
+   * Start the refresh of a stale entry read by the current thread.
+   *
+   * @return a token to pass to {@link #completeRefresh(Object, Object, long)}, or {@code -1} when the current thread
+   *         has no refresh to run for this key
+   */
+  public long beginRefresh(Object key) {
+    long token = generation.get();
+    return refreshes.replace(key, Thread.currentThread(), RUNNING) ? token : -1L;
+  }
+
+  public void completeRefresh(Object key, Object value, long token) {
+    try {
+      if (generation.get() == token) {
+        delegate.putObject(key, new Entry(value, System.currentTimeMillis()));
+      }
+    } finally {
+      refreshes.remove(key, RUNNING);
+    }
+  }
+
+  public void cancelRefresh(Object key) {
+    refreshes.remove(key, RUNNING);
+  }
+
+  public long getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(long refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+
+  private void claimRefresh(Object key) {
+    Thread current = Thread.currentThread();
+    Object owner = refreshes.putIfAbsent(key, current);
+    if (owner != null && owner != RUNNING && owner != current) {
+      // the previous reader never started its refresh, e.g. its transaction ignored the hit
+      refreshes.replace(key, owner, current);
+    }
+  }
+
+  private static class Entry implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Object value;
+    private long loadedAt;
+
+    // lets DeepCopyCodec copy entries field by field instead of serializing them
+    private Entry() {
+    }
+
+    Entry(Object value, long loadedAt) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TableDependencyIndex;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -41,15 +42,18 @@ public class TransactionalCache implements Cache {
   private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
   private final Cache delegate;
+  private final boolean notifyMisses;
   private boolean clearOnCommit;
-  private final Map<Object, Object> entriesToAddOnCommit;
-  private final Set<Object> entriesMissedInCache;
+  private Map<Object, Object> entriesToAddOnCommit;
+  private Set<Object> entriesMissedInCache;
+  private Set<Object> entriesToRemove;
+  private Map<Object, Set<String>> dependenciesToRegister;
+  private TableDependencyIndex dependencyIndex;
 
   public TransactionalCache(Cache delegate) {
     this.delegate = delegate;
+    this.notifyMisses = requiresMissNotification(delegate);
     this.clearOnCommit = false;
-    this.entriesToAddOnCommit = new HashMap<>();
-    this.entriesMissedInCache = new HashSet<>();
   }
 
   @Override
@@ -66,11 +70,14 @@ public class TransactionalCache implements Cache {
   public Object getObject(Object key) {
     // issue #116
     Object object = delegate.getObject(key);
-    if (object == null) {
+    if (object == null && notifyMisses) {
+      if (entriesMissedInCache == null) {
+        entriesMissedInCache = new HashSet<>();
+      }
       entriesMissedInCache.add(key);
     }
     // issue #146
-    if (clearOnCommit) {
+    if (clearOnCommit || (entriesToRemove != null && entriesToRemove.contains(key))) {
       return null;
     } else {
       return object;
@@ -84,9 +91,44 @@ public class TransactionalCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
+    if (entriesToAddOnCommit == null) {
+      entriesToAddOnCommit = new HashMap<>();
+    }
     entriesToAddOnCommit.put(key, object);
   }
 
+  /**
+   * Puts an entry that reads the given tables. The dependency is registered in the index when the entry is stored on
+   * commit, so that a write committed in between cannot look it up before it exists.
+   * @since 3.5.0
+   */
+  public void putObject(Object key, Object object, TableDependencyIndex index, Set<String> tables) {
+    putObject(key, object);
+    if (dependenciesToRegister == null) {
+      dependenciesToRegister = new HashMap<>();
+    }
+    dependenciesToRegister.put(key, tables);
+    dependencyIndex = index;
+  }
+
+  /**
+   * Removes an entry from the cache when the transaction ends. The entry is removed on rollback as well, because the
+   * dependency that triggered the invalidation is not tracked anymore.
+   * @since 3.5.0
+   */
+  public void invalidate(Object key) {
+    if (entriesToRemove == null) {
+      entriesToRemove = new HashSet<>();
+    }
+    entriesToRemove.add(key);
+    if (entriesToAddOnCommit != null) {
+      entriesToAddOnCommit.remove(key);
+    }
+    if (dependenciesToRegister != null) {
+      dependenciesToRegister.remove(key);
+    }
+  }
+
   @Override
   public Object removeObject(Object key) {
     return null;
@@ -95,40 +137,79 @@ public class TransactionalCache implements Cache {
   @Override
   public void clear() {
     clearOnCommit = true;
-    entriesToAddOnCommit.clear();
+    if (entriesToAddOnCommit != null) {
+      entriesToAddOnCommit.clear();
+    }
+    if (dependenciesToRegister != null) {
+      dependenciesToRegister.clear();
+    }
   }
 
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
+    } else if (entriesToRemove != null) {
+      for (Object entry : entriesToRemove) {
+        if (entriesToAddOnCommit == null || !entriesToAddOnCommit.containsKey(entry)) {
+          delegate.removeObject(entry);
+        }
+      }
     }
     flushPendingEntries();
     reset();
   }
 
   public void rollback() {
+    if (entriesToRemove != null) {
+      for (Object entry : entriesToRemove) {
+        delegate.removeObject(entry);
+      }
+    }
     unlockMissedEntries();
     reset();
   }
 
+  // the collections are kept for the next transaction of the session
   private void reset() {
     clearOnCommit = false;
-    entriesToAddOnCommit.clear();
-    entriesMissedInCache.clear();
+    if (entriesToAddOnCommit != null) {
+      entriesToAddOnCommit.clear();
+    }
+    if (entriesMissedInCache != null) {
+      entriesMissedInCache.clear();
+    }
+    if (entriesToRemove != null) {
+      entriesToRemove.clear();
+    }
+    if (dependenciesToRegister != null) {
+      dependenciesToRegister.clear();
+    }
   }
 
   private void flushPendingEntries() {
-    for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+    if (entriesToAddOnCommit != null) {
+      for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
+        Set<String> tables = dependenciesToRegister == null ? null : dependenciesToRegister.get(entry.getKey());
+        if (tables != null) {
+          // before the put, so that a write looking the key up afterwards always finds it
+          dependencyIndex.register(tables, delegate, entry.getKey());
+        }
+        delegate.putObject(entry.getKey(), entry.getValue());
+      }
     }
-    for (Object entry : entriesMissedInCache) {
-      if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+    if (entriesMissedInCache != null) {
+      for (Object entry : entriesMissedInCache) {
+        if (entriesToAddOnCommit == null || !entriesToAddOnCommit.containsKey(entry)) {
+          delegate.putObject(entry, null);
+        }
       }
     }
   }
 
   private void unlockMissedEntries() {
+    if (entriesMissedInCache == null) {
+      return;
+    }
     for (Object entry : entriesMissedInCache) {
       try {
         delegate.removeObject(entry);
@@ -139,4 +220,16 @@ public class TransactionalCache implements Cache {
     }
   }
 
+  /**
+   * Misses are reported back so that blocking caches can release their locks. The standard non-blocking chain ends
+   * with a {@link SynchronizedCache}, which does not need them; custom caches are always notified.
+   */
+  private static boolean requiresMissNotification(Cache cache) {
+    while (cache instanceof RefreshingCache || cache instanceof InvalidationBusCache) {
+      cache = cache instanceof RefreshingCache
+          ? ((RefreshingCache) cache).getDelegate() : ((InvalidationBusCache) cache).getDelegate();
+    }
+    return !(cache instanceof SynchronizedCache);
+  }
+
 }
@@ -0,0 +1,289 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.codec.SerializationCodec;
+
+/**
+ * Cache that keeps serialized values outside the Java heap, in direct byte buffer slabs.
+ * <p>
+ * Only the keys and a small index entry per key live on the heap, so large read-mostly caches do not add to
+ * garbage collection pauses. Slabs are filled in turn; when all of them are full the oldest one is recycled and
+ * every entry stored in it is evicted. Values larger than a slab are not cached.
+ * </p>
+ * <p>
+ * Usable as {@code <cache type="OFF_HEAP">} with the {@code capacity} (total bytes) and {@code slabSize} properties.
+ * Every read returns a fresh copy of the cached value, and the instance is thread safe on its own.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+  private static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+  private static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+  private final String id;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Object, Entry> index = new HashMap<>();
+  private long capacity = DEFAULT_CAPACITY;
+  private int slabSize = DEFAULT_SLAB_SIZE;
+  private Slab[] slabs;
+  private int current;
+  private EvictionListener evictionListener;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public void initialize() {
+    if (capacity <= 0 || slabSize <= 0) {
+      throw new CacheException("Off-heap cache '" + id + "' requires a positive capacity and slab size.");
+    }
+    lock.writeLock().lock();
+    try {
+      if (slabSize > capacity) {
+        slabSize = (int) capacity;
+      }
+      long count = capacity / slabSize;
+      if (count > Integer.MAX_VALUE) {
+        throw new CacheException("Off-heap cache '" + id + "' would need too many slabs. Increase the slab size.");
+      }
+      index.clear();
+      slabs = new Slab[(int) count];
+      current = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      removeObject(key);
+      return;
+    }
+    if (!(value instanceof Serializable)) {
+      throw new CacheException("Off-heap cache '" + id + "' cannot store a non-serializable object: " + value);
+    }
+    byte[] bytes = SerializationCodec.serialize((Serializable) value);
+    lock.writeLock().lock();
+    try {
+      if (slabs == null) {
+        initialize();
+      }
+      index.remove(key);
+      if (bytes.length > slabSize) {
+        return;
+      }
+      Slab slab = slabFor(bytes.length);
+      Entry entry = new Entry(key, slab, slab.position, bytes.length);
+      ByteBuffer target = slab.buffer.duplicate();
+      target.position(slab.position);
+      target.put(bytes);
+      slab.position += bytes.length;
+      slab.entries.add(entry);
+      index.put(key, entry);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] bytes;
+    lock.readLock().lock();
+    try {
+      Entry entry = index.get(key);
+      if (entry == null) {
+        return null;
+      }
+      bytes = new byte[entry.length];
+      ByteBuffer source = entry.slab.buffer.duplicate();
+      source.position(entry.offset);
+      source.get(bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return SerializationCodec.deserialize(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.writeLock().lock();
+    try {
+      // the bytes are reclaimed when their slab is recycled
+      index.remove(key);
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      index.clear();
+      if (slabs != null) {
+        for (Slab slab : slabs) {
+          if (slab != null) {
+            slab.reset();
+          }
+        }
+      }
+      current = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (evictionListener != null) {
+      evictionListener.onClear();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  public void setSlabSize(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  public void setEvictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  private Slab slabFor(int length) {
+    Slab slab = slabs[current];
+    if (slab == null) {
+      slab = slabs[current] = new Slab(slabSize);
+    } else if (slabSize - slab.position < length) {
+      current = (current + 1) % slabs.length;
+      slab = slabs[current];
+      if (slab == null) {
+        slab = slabs[current] = new Slab(slabSize);
+      } else {
+        evict(slab);
+      }
+    }
+    return slab;
+  }
+
+  private void evict(Slab slab) {
+    for (Entry entry : slab.entries) {
+      if (index.remove(entry.key, entry) && evictionListener != null) {
+        evictionListener.onEviction(entry.key);
+      }
+    }
+    slab.reset();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Slab {
+    private final ByteBuffer buffer;
+    private final List<Entry> entries = new ArrayList<>();
+    private int position;
+
+    Slab(int size) {
+      this.buffer = ByteBuffer.allocateDirect(size);
+    }
+
+    void reset() {
+      entries.clear();
+      position = 0;
+    }
+  }
+
+  private static final class Entry {
+    private final Object key;
+    private final Slab slab;
+    private final int offset;
+    private final int length;
+
+    Entry(Object key, Slab slab, int offset, int length) {
+      this.key = key;
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -42,4 +46,20 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
      * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
      */
     int getCurrentIndex();
+
+    /**
+     * Returns a sequential Stream over the cursor items. Items are fetched lazily as the stream is consumed, and
+     * closing the stream closes the cursor. Like {@link #iterator()}, this can only be called once.
+     * @return a stream over the remaining cursor items
+     * @since 3.5.0
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 }
@@ -0,0 +1,188 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the items of a {@link Cursor} to a single subscriber with backpressure.
+ * <p>
+ * Rows are only read from the underlying result set when the subscriber requests them, and they are emitted on the
+ * thread that calls {@link Subscription#request(long)}, so no thread is dedicated to a consumer. The contracts follow
+ * the Reactive Streams specification and map one to one onto {@code java.util.concurrent.Flow} or
+ * {@code org.reactivestreams}, which can be bridged with a few lines of adapter code.
+ * The cursor is closed when it is consumed, when it fails, or when the subscription is cancelled.
+ *
+ * @since 3.5.0
+ */
+public class CursorPublisher<T> {
+
+    private final Cursor<T> cursor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public CursorPublisher(Cursor<T> cursor) {
+        this.cursor = cursor;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    // nothing to emit
+                }
+
+                @Override
+                public void cancel() {
+                    // nothing to cancel
+                }
+            });
+            subscriber.onError(new IllegalStateException("A Cursor can only be published to one subscriber"));
+            return;
+        }
+        CursorSubscription<T> subscription = new CursorSubscription<>(cursor, subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Receiver of the cursor items.
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Demand signalled by a {@link Subscriber}.
+     */
+    public interface Subscription {
+
+        void request(long n);
+
+        void cancel();
+    }
+
+    private static class CursorSubscription<T> implements Subscription {
+
+        private final Cursor<T> cursor;
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Iterator<T> iterator;
+        private volatile boolean cancelled;
+        private volatile Throwable badRequest;
+        private boolean done;
+
+        CursorSubscription(Cursor<T> cursor, Subscriber<? super T> subscriber) {
+            this.cursor = cursor;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Requested " + n + " items, the demand must be positive");
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (done) {
+                    return;
+                }
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                if (badRequest != null) {
+                    finish();
+                    subscriber.onError(badRequest);
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand) {
+                    if (cancelled) {
+                        finish();
+                        return;
+                    }
+                    T item;
+                    try {
+                        if (iterator == null) {
+                            iterator = cursor.iterator();
+                        }
+                        if (!iterator.hasNext()) {
+                            finish();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        item = iterator.next();
+                    } catch (Throwable t) {
+                        finish();
+                        subscriber.onError(t);
+                        return;
+                    }
+                    subscriber.onNext(item);
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void finish() {
+            done = true;
+            try {
+                cursor.close();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+}
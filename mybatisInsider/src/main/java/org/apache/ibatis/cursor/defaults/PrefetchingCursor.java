@@ -0,0 +1,231 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BackgroundExecutors;
+import org.apache.ibatis.executor.ExecutorException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Cursor that fetches and maps rows of another cursor on a background thread.
+ * <p>
+ * Rows are handed over in batches through a bounded queue, so reading from the database and mapping
+ * the next batch overlaps with the caller processing the current one, while at most
+ * {@code batchSize * (maxBatches + 1)} mapped rows are held in memory.
+ * The session that opened the cursor must not be used for other statements until the cursor is closed
+ * or consumed, since its connection is read from the background thread.
+ * This implementation is not thread safe for consumers.
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+    private static final Object END = new Object();
+
+    // one thread per open cursor, bounded by the connections the cursors are read from
+    private static final ExecutorService PREFETCH_EXECUTOR = BackgroundExecutors.newCachedPool("cursor-prefetch");
+
+    private final Cursor<T> delegate;
+    private final int offset;
+    private final int batchSize;
+    private final BlockingQueue<Object> queue;
+
+    private final PrefetchingIterator prefetchingIterator = new PrefetchingIterator();
+    private boolean iteratorRetrieved;
+
+    private volatile boolean closed;
+    private Future<?> producer;
+    private boolean consumed;
+
+    public PrefetchingCursor(Cursor<T> delegate, int offset, int batchSize, int maxBatches) {
+        if (batchSize <= 0 || maxBatches <= 0) {
+            throw new IllegalArgumentException("Prefetch batch size and queue capacity must be positive");
+        }
+        this.delegate = delegate;
+        this.offset = offset;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(maxBatches);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return producer != null && !closed && !consumed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return offset + prefetchingIterator.iteratorIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        iteratorRetrieved = true;
+        return prefetchingIterator;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.clear();
+        if (producer != null) {
+            try {
+                producer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // the producer reports its own failures through the queue
+            }
+            queue.clear();
+        }
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    private void start() {
+        if (producer == null && !closed) {
+            producer = PREFETCH_EXECUTOR.submit(new Runnable() {
+                @Override
+                public void run() {
+                    produce();
+                }
+            });
+        }
+    }
+
+    private void produce() {
+        try {
+            Iterator<T> rows = delegate.iterator();
+            List<T> batch = new ArrayList<>(batchSize);
+            while (!closed && rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == batchSize) {
+                    offer(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                offer(batch);
+            }
+            offer(END);
+        } catch (Throwable t) {
+            offer(t);
+        }
+    }
+
+    private void offer(Object element) {
+        try {
+            while (!closed && !queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                // wait for the consumer to take a batch or to close the cursor
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Iterator<T> takeBatch() {
+        if (consumed || closed) {
+            return null;
+        }
+        start();
+        Object element;
+        try {
+            element = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorException("Interrupted while waiting for prefetched rows", e);
+        }
+        if (element == END) {
+            consumed = true;
+            return null;
+        }
+        if (element instanceof Throwable) {
+            close();
+            Throwable t = (Throwable) element;
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new ExecutorException("Error prefetching cursor rows.  Cause: " + t, t);
+        }
+        return ((List<T>) element).iterator();
+    }
+
+    private class PrefetchingIterator implements Iterator<T> {
+
+        /**
+         * Rows of the batch being handed out
+         */
+        Iterator<T> batch;
+
+        /**
+         * Index of objects returned using next(), and as such, visible to users.
+         */
+        int iteratorIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            while (batch == null || !batch.hasNext()) {
+                batch = takeBatch();
+                if (batch == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            iteratorIndex++;
+            return batch.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove element from Cursor");
+        }
+    }
+}
@@ -31,6 +31,8 @@ import javax.sql.DataSource;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.NoOpMetricsCollector;
 
 /**
  * This is a simple, synchronous, thread-safe database connection pool.
@@ -57,6 +59,8 @@ public class PooledDataSource implements DataSource {
 
   private int expectedConnectionTypeCode;
 
+  private MetricsCollector metricsCollector = NoOpMetricsCollector.INSTANCE;
+
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
   }
@@ -150,6 +154,17 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * The collector notified of the time every caller spent checking out a connection
+   *
+   * @param metricsCollector The collector, or null to disable
+   *
+   * @since 3.5.0
+   */
+  public void setMetricsCollector(MetricsCollector metricsCollector) {
+    this.metricsCollector = metricsCollector == null ? NoOpMetricsCollector.INSTANCE : metricsCollector;
+  }
+
   /*
    * The maximum number of active connections
    *
@@ -387,6 +402,7 @@ public class PooledDataSource implements DataSource {
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long checkoutStart = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -494,6 +510,7 @@ public class PooledDataSource implements DataSource {
       throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
 
+    metricsCollector.recordConnectionCheckout(System.nanoTime() - checkoutStart);
     return conn;
   }
 
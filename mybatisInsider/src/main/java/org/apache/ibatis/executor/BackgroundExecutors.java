@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools MyBatis runs background work on: cache refreshes, parallel chunks and cursor prefetching.
+ * Their threads are daemons named <code>mybatis-&lt;name&gt;-&lt;n&gt;</code>, so that they never keep the JVM alive
+ * and are easy to spot in thread dumps.
+ *
+ * @since 3.5.0
+ */
+public final class BackgroundExecutors {
+
+  private BackgroundExecutors() {
+    // NOP
+  }
+
+  /**
+   * Returns a pool of at most {@code threads} threads, which go away when idle, and a queue of {@code queueSize}
+   * tasks. Tasks submitted while both are full are rejected with a
+   * {@link java.util.concurrent.RejectedExecutionException}, so callers must be able to do without them.
+   */
+  public static ExecutorService newBoundedPool(String name, int threads, int queueSize) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueSize), threadFactory(name));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Returns a pool that starts a thread for every task that finds no idle one. Only for tasks whose number is
+   * already bounded elsewhere, e.g. by the open connections.
+   */
+  public static ExecutorService newCachedPool(String name) {
+    return Executors.newCachedThreadPool(threadFactory(name));
+  }
+
+  private static ThreadFactory threadFactory(final String name) {
+    return new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "mybatis-" + name + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+}
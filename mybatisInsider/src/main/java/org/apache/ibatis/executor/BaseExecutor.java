@@ -20,6 +20,7 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -35,6 +36,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.CacheLevel;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
@@ -61,11 +63,15 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private List<CacheKey> statementScopedKeys;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
-    this.localCache = new PerpetualCache("LocalCache");
+    this.localCache = configuration.getLocalCacheSize() > 0 || configuration.getLocalCacheMaxBytes() > 0
+        ? new BoundedLocalCache("LocalCache", configuration.getLocalCacheSize(),
+            configuration.getLocalCacheMaxBytes(), configuration.getCacheWeigher())
+        : new PerpetualCache("LocalCache");
     this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
     this.closed = false;
     this.configuration = configuration;
@@ -150,6 +156,9 @@ public abstract class BaseExecutor implements Executor {
     try {
       queryStack++;
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      if (resultHandler == null && configuration.isMetricsEnabled()) {
+        configuration.getMetricsCollector().recordCacheAccess(ms.getId(), CacheLevel.LOCAL, list != null);
+      }
       if (list != null) {
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
@@ -167,6 +176,8 @@ public abstract class BaseExecutor implements Executor {
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         // issue #482
         clearLocalCache();
+      } else {
+        evictLocalCache();
       }
     }
     return list;
@@ -279,6 +290,17 @@ public abstract class BaseExecutor implements Executor {
   protected abstract <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql)
       throws SQLException;
 
+  /**
+   * Apply the configured cursor fetch hints unless the statement declares its own fetch size.
+   * @since 3.5.0
+   */
+  protected void applyCursorFetchHints(MappedStatement ms, Statement statement) throws SQLException {
+    Integer cursorFetchSize = configuration.getCursorFetchSize();
+    if (cursorFetchSize != null && ms.getFetchSize() == null) {
+      StatementUtil.applyCursorFetchHints(statement, cursorFetchSize);
+    }
+  }
+
   protected void closeStatement(Statement statement) {
     if (statement != null) {
       try {
@@ -331,9 +353,28 @@ public abstract class BaseExecutor implements Executor {
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
     }
+    if (!ms.isUseLocalCache()) {
+      if (statementScopedKeys == null) {
+        statementScopedKeys = new ArrayList<>();
+      }
+      statementScopedKeys.add(key);
+    }
     return list;
   }
 
+  private void evictLocalCache() {
+    if (statementScopedKeys != null && !statementScopedKeys.isEmpty()) {
+      for (CacheKey key : statementScopedKeys) {
+        localCache.removeObject(key);
+        localOutputParameterCache.removeObject(key);
+      }
+      statementScopedKeys.clear();
+    }
+    if (localCache instanceof BoundedLocalCache) {
+      ((BoundedLocalCache) localCache).trim();
+    }
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
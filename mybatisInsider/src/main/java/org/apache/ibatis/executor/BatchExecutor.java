@@ -30,6 +30,8 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -104,6 +106,7 @@ public class BatchExecutor extends BaseExecutor {
     Connection connection = getConnection(ms.getStatementLog());
     Statement stmt = handler.prepare(connection, transaction.getTimeout());
     handler.parameterize(stmt);
+    applyCursorFetchHints(ms, stmt);
     return handler.<E>queryCursor(stmt);
   }
 
@@ -119,8 +122,10 @@ public class BatchExecutor extends BaseExecutor {
         applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
         try {
+          long start = System.nanoTime();
           batchResult.setUpdateCounts(stmt.executeBatch());
           MappedStatement ms = batchResult.getMappedStatement();
+          recordBatchExecution(ms, start, batchResult.getUpdateCounts());
           List<Object> parameterObjects = batchResult.getParameterObjects();
           KeyGenerator keyGenerator = ms.getKeyGenerator();
           if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
@@ -160,4 +165,18 @@ public class BatchExecutor extends BaseExecutor {
     }
   }
 
+  private void recordBatchExecution(MappedStatement ms, long start, int[] updateCounts) {
+    if (configuration.isMetricsEnabled()) {
+      MetricsCollector metricsCollector = configuration.getMetricsCollector();
+      metricsCollector.recordPhase(ms.getId(), ExecutionPhase.EXECUTE, System.nanoTime() - start);
+      long rows = 0;
+      for (int updateCount : updateCounts) {
+        if (updateCount > 0) {
+          rows += updateCount;
+        }
+      }
+      metricsCollector.recordRowsAffected(ms.getId(), rows);
+    }
+  }
+
 }
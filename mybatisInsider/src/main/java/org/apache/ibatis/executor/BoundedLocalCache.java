@@ -0,0 +1,101 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+
+/**
+ * Session local cache bounded by entry count and by the approximate size of the cached results, evicting the least
+ * recently used entries first.
+ * <p>
+ * Entries are only evicted by {@link #trim()}, which the executor calls once a top-level query has completed, so that
+ * results still needed by deferred loads and circular references are never evicted in the middle of a query.
+ *
+ * @since 3.5.0
+ */
+class BoundedLocalCache extends PerpetualCache {
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final Weigher weigher;
+  private final LinkedHashMap<Object, Long> weights = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  BoundedLocalCache(String id, int maxEntries, long maxBytes, Weigher weigher) {
+    super(id);
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.weigher = weigher;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    super.putObject(key, value);
+    long weight = maxBytes > 0 ? weigher.weigh(value) : 0;
+    Long previous = weights.put(key, weight);
+    bytes += previous == null ? weight : weight - previous;
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = super.getObject(key);
+    if (value != null) {
+      // refreshes the access order
+      weights.get(key);
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Long weight = weights.remove(key);
+    if (weight != null) {
+      bytes -= weight;
+    }
+    return super.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    weights.clear();
+    bytes = 0;
+    super.clear();
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+
+  void trim() {
+    Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+    while (isOverBudget() && eldest.hasNext()) {
+      Map.Entry<Object, Long> entry = eldest.next();
+      eldest.remove();
+      bytes -= entry.getValue();
+      super.removeObject(entry.getKey());
+    }
+  }
+
+  private boolean isOverBudget() {
+    return (maxEntries > 0 && weights.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+  }
+
+}
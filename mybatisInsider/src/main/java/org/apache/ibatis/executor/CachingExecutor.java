@@ -17,17 +17,27 @@ package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TableDependencyIndex;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.RefreshingCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.CacheLevel;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -38,11 +48,30 @@ import org.apache.ibatis.transaction.Transaction;
  */
 public class CachingExecutor implements Executor {
 
+  private static final Log log = LogFactory.getLog(CachingExecutor.class);
+
+  /**
+   * Set while a background refresh runs its query through a full executor, whose caching layer must go to the
+   * database instead of returning the stale entry again.
+   */
+  private static final ThreadLocal<Boolean> REFRESHING = new ThreadLocal<>();
+
   private final Executor delegate;
   private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final boolean readOnly;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * @param readOnly when {@code true} the second level cache is read and filled directly, without the transactional
+   *        buffer, because the session never writes
+   * @since 3.5.0
+   */
+  public CachingExecutor(Executor delegate, boolean readOnly) {
     this.delegate = delegate;
+    this.readOnly = readOnly;
     delegate.setExecutorWrapper(this);
   }
 
@@ -72,7 +101,7 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameterObject);
     return delegate.update(ms, parameterObject);
   }
 
@@ -93,15 +122,44 @@ public class CachingExecutor implements Executor {
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql)
       throws SQLException {
     Cache cache = ms.getCache();
-    if (cache != null) {
+    if (cache != null && REFRESHING.get() == null) {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
         @SuppressWarnings("unchecked")
-        List<E> list = (List<E>) tcm.getObject(cache, key);
+        List<E> list = (List<E>) (readOnly ? cache.getObject(key) : tcm.getObject(cache, key));
+        if (ms.getConfiguration().isMetricsEnabled()) {
+          ms.getConfiguration().getMetricsCollector().recordCacheAccess(ms.getId(), CacheLevel.SECOND_LEVEL, list != null);
+        }
+        boolean statistics = ms.getConfiguration().isCacheStatisticsEnabled();
         if (list == null) {
-          list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-          tcm.putObject(cache, key, list); // issue #578 and #116
+          long start = statistics ? System.nanoTime() : 0;
+          TableDependencyIndex index = ms.getConfiguration().isTableLevelCacheInvalidationEnabled()
+              ? ms.getConfiguration().getTableDependencyIndex() : null;
+          if (readOnly) {
+            if (index != null) {
+              index.register(index.readTables(ms, boundSql), cache, key);
+            }
+            list = queryThrough(cache, ms, parameterObject, rowBounds, key, boundSql);
+          } else {
+            list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+            // issue #578 and #116
+            if (index != null) {
+              tcm.putObject(cache, key, list, index, index.readTables(ms, boundSql));
+            } else {
+              tcm.putObject(cache, key, list);
+            }
+          }
+          if (statistics) {
+            ms.getConfiguration().getCacheStatistics().recordMiss(cache, ms.getId(), System.nanoTime() - start);
+          }
+        } else {
+          if (statistics) {
+            ms.getConfiguration().getCacheStatistics().recordHit(cache, ms.getId());
+          }
+          if (cache instanceof RefreshingCache) {
+            refreshIfStale((RefreshingCache) cache, ms, parameterObject, rowBounds, key, boundSql);
+          }
         }
         return list;
       }
@@ -161,10 +219,87 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
+  private <E> List<E> queryThrough(Cache cache, MappedStatement ms, Object parameterObject, RowBounds rowBounds,
+      CacheKey key, BoundSql boundSql) throws SQLException {
+    List<E> list = null;
+    try {
+      list = delegate.<E> query(ms, parameterObject, rowBounds, Executor.NO_RESULT_HANDLER, key, boundSql);
+    } finally {
+      if (list == null) {
+        // releases the lock a blocking cache took on the miss
+        cache.removeObject(key);
+      }
+    }
+    cache.putObject(key, list);
+    return list;
+  }
+
+  /**
+   * Reloads a stale entry on a background thread, with its own auto-commit transaction, while the stale value is
+   * returned to the caller. The query runs through an executor of the configuration, so plugins apply to it, and
+   * waits in {@link Configuration#getCacheRefreshExecutor()}; if that is full, the entry is refreshed by a later hit.
+   * The parameter object is read again by the background query, so it should not be modified after the call.
+   */
+  private void refreshIfStale(final RefreshingCache cache, final MappedStatement ms, final Object parameterObject,
+      final RowBounds rowBounds, final CacheKey key, final BoundSql boundSql) {
+    final long token = cache.beginRefresh(key);
+    if (token < 0) {
+      return;
+    }
+    final Configuration configuration = ms.getConfiguration();
+    final Environment environment = configuration.getEnvironment();
+    if (environment == null) {
+      cache.cancelRefresh(key);
+      return;
+    }
+    try {
+      configuration.getCacheRefreshExecutor().execute(new Runnable() {
+        @Override
+        public void run() {
+          Executor executor = null;
+          try {
+            Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+            executor = configuration.newExecutor(transaction, ExecutorType.SIMPLE);
+            REFRESHING.set(Boolean.TRUE);
+            List<Object> list = executor.query(ms, parameterObject, rowBounds, Executor.NO_RESULT_HANDLER, key, boundSql);
+            cache.completeRefresh(key, list, token);
+          } catch (Exception e) {
+            cache.cancelRefresh(key);
+            log.warn("Error refreshing cache entry of " + ms.getId() + ".  Cause: " + e);
+          } finally {
+            REFRESHING.remove();
+            if (executor != null) {
+              executor.close(false);
+            }
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      cache.cancelRefresh(key);
+    }
+  }
+
+  private void flushCacheIfRequired(MappedStatement ms, Object parameterObject) {
+    Configuration configuration = ms.getConfiguration();
+    if (ms.isFlushCacheRequired() && configuration.isTableLevelCacheInvalidationEnabled()) {
+      TableDependencyIndex index = configuration.getTableDependencyIndex();
+      Set<String> tables = index.writeTables(ms, ms.getTables() == null ? ms.getBoundSql(parameterObject) : null);
+      if (tables != null) {
+        index.invalidate(tables, tcm);
+        return;
+      }
+    }
+    flushCacheIfRequired(ms);
+  }
+
   private void flushCacheIfRequired(MappedStatement ms) {
     Cache cache = ms.getCache();
     if (cache != null && ms.isFlushCacheRequired()) {      
-      tcm.clear(cache);
+      if (readOnly) {
+        cache.clear();
+      } else {
+        tcm.clear(cache);
+      }
     }
   }
 
@@ -65,6 +65,7 @@ public class ReuseExecutor extends BaseExecutor {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
     Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    applyCursorFetchHints(ms, stmt);
     return handler.<E>queryCursor(stmt);
   }
 
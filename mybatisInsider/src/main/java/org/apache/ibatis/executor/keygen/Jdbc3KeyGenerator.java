@@ -28,7 +28,13 @@ import java.util.Map;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -64,18 +70,17 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
       final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
       final String[] keyProperties = ms.getKeyProperties();
       final ResultSetMetaData rsmd = rs.getMetaData();
-      TypeHandler<?>[] typeHandlers = null;
       if (keyProperties != null && rsmd.getColumnCount() >= keyProperties.length) {
+        KeyAssignmentPlan plan = null;
         for (Object parameter : parameters) {
           // there should be one row for each statement (also one for each parameter)
           if (!rs.next()) {
             break;
           }
-          final MetaObject metaParam = configuration.newMetaObject(parameter);
-          if (typeHandlers == null) {
-            typeHandlers = getTypeHandlers(typeHandlerRegistry, metaParam, keyProperties, rsmd);
+          if (plan == null || !plan.accepts(parameter)) {
+            plan = new KeyAssignmentPlan(configuration, typeHandlerRegistry, parameter, keyProperties, rsmd);
           }
-          populateKeys(rs, metaParam, keyProperties, typeHandlers);
+          plan.assign(rs, parameter);
         }
       }
     } catch (Exception e) {
@@ -112,27 +117,87 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     return parameters;
   }
 
-  private TypeHandler<?>[] getTypeHandlers(TypeHandlerRegistry typeHandlerRegistry, MetaObject metaParam, String[] keyProperties, ResultSetMetaData rsmd) throws SQLException {
-    TypeHandler<?>[] typeHandlers = new TypeHandler<?>[keyProperties.length];
-    for (int i = 0; i < keyProperties.length; i++) {
-      if (metaParam.hasSetter(keyProperties[i])) {
-        Class<?> keyPropertyType = metaParam.getSetterType(keyProperties[i]);
-        typeHandlers[i] = typeHandlerRegistry.getTypeHandler(keyPropertyType, JdbcType.forCode(rsmd.getColumnType(i + 1)));
-      } else {
-        throw new ExecutorException("No setter found for the keyProperty '" + keyProperties[i] + "' in '"
-            + metaParam.getOriginalObject().getClass().getName() + "'.");
+  /**
+   * Key setters and type handlers resolved once for a parameter type, so that assigning the keys of a large batch
+   * does not build a {@link MetaObject} or look up type handlers for every row.
+   */
+  private static class KeyAssignmentPlan {
+
+    private final Configuration configuration;
+    private final Class<?> parameterType;
+    private final String[] keyProperties;
+    private final TypeHandler<?>[] typeHandlers;
+    private final Invoker[] setters;
+    private final boolean needsMetaObject;
+
+    KeyAssignmentPlan(Configuration configuration, TypeHandlerRegistry typeHandlerRegistry, Object parameter,
+        String[] keyProperties, ResultSetMetaData rsmd) throws SQLException {
+      this.configuration = configuration;
+      this.parameterType = parameter == null ? null : parameter.getClass();
+      this.keyProperties = keyProperties;
+      this.typeHandlers = new TypeHandler<?>[keyProperties.length];
+      this.setters = new Invoker[keyProperties.length];
+      final MetaObject metaParam = configuration.newMetaObject(parameter);
+      final Reflector reflector = isPlainBean(configuration, parameterType)
+          ? configuration.getReflectorFactory().findForClass(parameterType) : null;
+      boolean metaObjectRequired = false;
+      for (int i = 0; i < keyProperties.length; i++) {
+        if (metaParam.hasSetter(keyProperties[i])) {
+          Class<?> keyPropertyType = metaParam.getSetterType(keyProperties[i]);
+          typeHandlers[i] = typeHandlerRegistry.getTypeHandler(keyPropertyType, JdbcType.forCode(rsmd.getColumnType(i + 1)));
+        } else {
+          throw new ExecutorException("No setter found for the keyProperty '" + keyProperties[i] + "' in '"
+              + metaParam.getOriginalObject().getClass().getName() + "'.");
+        }
+        if (reflector != null && isSimpleProperty(keyProperties[i]) && reflector.hasSetter(keyProperties[i])) {
+          setters[i] = reflector.getSetInvoker(keyProperties[i]);
+        } else if (typeHandlers[i] != null) {
+          metaObjectRequired = true;
+        }
+      }
+      this.needsMetaObject = metaObjectRequired;
+    }
+
+    private static boolean isPlainBean(Configuration configuration, Class<?> type) {
+      return type != null
+          && !Map.class.isAssignableFrom(type)
+          && !Collection.class.isAssignableFrom(type)
+          && !ObjectWrapper.class.isAssignableFrom(type)
+          && configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory;
+    }
+
+    private static boolean isSimpleProperty(String property) {
+      return property.indexOf('.') < 0 && property.indexOf('[') < 0;
+    }
+
+    boolean accepts(Object parameter) {
+      return parameter == null ? parameterType == null : parameter.getClass() == parameterType;
+    }
+
+    void assign(ResultSet rs, Object parameter) throws SQLException {
+      MetaObject metaParam = needsMetaObject ? configuration.newMetaObject(parameter) : null;
+      for (int i = 0; i < keyProperties.length; i++) {
+        TypeHandler<?> th = typeHandlers[i];
+        if (th != null) {
+          Object value = th.getResult(rs, i + 1);
+          if (setters[i] != null) {
+            setValue(setters[i], keyProperties[i], parameter, value);
+          } else {
+            metaParam.setValue(keyProperties[i], value);
+          }
+        }
       }
     }
-    return typeHandlers;
-  }
 
-  private void populateKeys(ResultSet rs, MetaObject metaParam, String[] keyProperties, TypeHandler<?>[] typeHandlers) throws SQLException {
-    for (int i = 0; i < keyProperties.length; i++) {
-      String property = keyProperties[i];
-      TypeHandler<?> th = typeHandlers[i];
-      if (th != null) {
-        Object value = th.getResult(rs, i + 1);
-        metaParam.setValue(property, value);
+    private static void setValue(Invoker setter, String property, Object parameter, Object value) {
+      try {
+        try {
+          setter.invoke(parameter, new Object[] {value});
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + parameter.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
       }
     }
   }
@@ -18,6 +18,7 @@ package org.apache.ibatis.executor.statement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
@@ -27,6 +28,8 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -50,6 +53,10 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   protected BoundSql boundSql;
 
+  protected final MetricsCollector metricsCollector;
+  protected final boolean metricsEnabled;
+  private long prepareNanos;
+
   protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
     this.configuration = mappedStatement.getConfiguration();
     this.executor = executor;
@@ -58,6 +65,8 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
+    this.metricsCollector = configuration.getMetricsCollector();
+    this.metricsEnabled = configuration.isMetricsEnabled();
 
     if (boundSql == null) { // issue #435, get the key before calculating the statement
       generateKeys(parameterObject);
@@ -83,6 +92,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
   @Override
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
     ErrorContext.instance().sql(boundSql.getSql());
+    long start = startTimer();
     Statement statement = null;
     try {
       statement = instantiateStatement(connection);
@@ -95,6 +105,8 @@ public abstract class BaseStatementHandler implements StatementHandler {
     } catch (Exception e) {
       closeStatement(statement);
       throw new ExecutorException("Error preparing statement.  Cause: " + e, e);
+    } finally {
+      addPrepareTime(start);
     }
   }
 
@@ -135,6 +147,55 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  protected long startTimer() {
+    return metricsEnabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Adds the time elapsed since {@code start} to the prepare phase, which covers statement creation
+   * and parameter binding and is reported once per execution.
+   */
+  protected void addPrepareTime(long start) {
+    if (metricsEnabled) {
+      prepareNanos += System.nanoTime() - start;
+    }
+  }
+
+  protected void recordPrepare() {
+    if (metricsEnabled) {
+      metricsCollector.recordPhase(mappedStatement.getId(), ExecutionPhase.PREPARE, prepareNanos);
+      prepareNanos = 0L;
+    }
+  }
+
+  /**
+   * Records the prepare phase and the execute phase that started at {@code start}.
+   * @return the start of the next phase
+   */
+  protected long recordExecute(long start) {
+    if (!metricsEnabled) {
+      return 0L;
+    }
+    recordPrepare();
+    long now = System.nanoTime();
+    metricsCollector.recordPhase(mappedStatement.getId(), ExecutionPhase.EXECUTE, now - start);
+    return now;
+  }
+
+  protected void recordMapping(long start, List<?> results) {
+    if (metricsEnabled) {
+      metricsCollector.recordPhase(mappedStatement.getId(), ExecutionPhase.MAP, System.nanoTime() - start);
+      metricsCollector.recordRowsFetched(mappedStatement.getId(), results.size());
+    }
+  }
+
+  protected void recordUpdate(long start, int rows) {
+    if (metricsEnabled) {
+      recordExecute(start);
+      metricsCollector.recordRowsAffected(mappedStatement.getId(), rows);
+    }
+  }
+
   protected void generateKeys(Object parameter) {
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     ErrorContext.instance().store();
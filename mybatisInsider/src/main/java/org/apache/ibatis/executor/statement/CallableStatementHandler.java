@@ -46,8 +46,10 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = startTimer();
     cs.execute();
     int rows = cs.getUpdateCount();
+    recordUpdate(start, rows);
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, cs, parameterObject);
@@ -59,21 +61,27 @@ public class CallableStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
     cs.addBatch();
+    recordPrepare();
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = startTimer();
     cs.execute();
+    start = recordExecute(start);
     List<E> resultList = resultSetHandler.<E>handleResultSets(cs);
     resultSetHandler.handleOutputParameters(cs);
+    recordMapping(start, resultList);
     return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = startTimer();
     cs.execute();
+    recordExecute(start);
     Cursor<E> resultList = resultSetHandler.<E>handleCursorResultSets(cs);
     resultSetHandler.handleOutputParameters(cs);
     return resultList;
@@ -91,8 +99,10 @@ public class CallableStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
+    long start = startTimer();
     registerOutputParameters((CallableStatement) statement);
     parameterHandler.setParameters((CallableStatement) statement);
+    addPrepareTime(start);
   }
 
   private void registerOutputParameters(CallableStatement cs) throws SQLException {
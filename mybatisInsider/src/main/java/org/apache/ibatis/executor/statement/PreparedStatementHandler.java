@@ -43,8 +43,10 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
     int rows = ps.getUpdateCount();
+    recordUpdate(start, rows);
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, ps, parameterObject);
@@ -55,19 +57,26 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
     ps.addBatch();
+    recordPrepare();
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
-    return resultSetHandler.<E> handleResultSets(ps);
+    start = recordExecute(start);
+    List<E> resultList = resultSetHandler.<E> handleResultSets(ps);
+    recordMapping(start, resultList);
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
+    recordExecute(start);
     return resultSetHandler.<E> handleCursorResultSets(ps);
   }
 
@@ -90,7 +99,9 @@ public class PreparedStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
+    long start = startTimer();
     parameterHandler.setParameters((PreparedStatement) statement);
+    addPrepareTime(start);
   }
 
 }
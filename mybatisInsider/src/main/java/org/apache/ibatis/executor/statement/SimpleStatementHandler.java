@@ -45,18 +45,22 @@ public class SimpleStatementHandler extends BaseStatementHandler {
     String sql = boundSql.getSql();
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
+    long start = startTimer();
     int rows;
     if (keyGenerator instanceof Jdbc3KeyGenerator) {
       statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
       rows = statement.getUpdateCount();
+      recordUpdate(start, rows);
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else if (keyGenerator instanceof SelectKeyGenerator) {
       statement.execute(sql);
       rows = statement.getUpdateCount();
+      recordUpdate(start, rows);
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else {
       statement.execute(sql);
       rows = statement.getUpdateCount();
+      recordUpdate(start, rows);
     }
     return rows;
   }
@@ -65,19 +69,26 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
     statement.addBatch(sql);
+    recordPrepare();
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startTimer();
     statement.execute(sql);
-    return resultSetHandler.<E>handleResultSets(statement);
+    start = recordExecute(start);
+    List<E> resultList = resultSetHandler.<E>handleResultSets(statement);
+    recordMapping(start, resultList);
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startTimer();
     statement.execute(sql);
+    recordExecute(start);
     return resultSetHandler.<E>handleCursorResultSets(statement);
   }
 
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.executor.statement;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Locale;
 
 /**
  * Utility for {@link java.sql.Statement}.
@@ -55,4 +58,35 @@ public class StatementUtil {
     }
   }
 
+  /**
+   * Apply fetch hints that let the driver stream the rows of a cursor instead of reading the whole result.
+   * <p>
+   * PostgreSQL only honors the fetch size outside auto-commit mode, so it is only set when the connection is already
+   * out of auto-commit mode; the auto-commit mode itself belongs to the transaction and is never changed here.
+   * MySQL and MariaDB stream rows of forward-only, read-only results when the fetch size is
+   * {@link Integer#MIN_VALUE}. Other drivers get the given fetch size.
+   * </p>
+   * @param statement a target statement, not executed yet
+   * @param fetchSize the number of rows to fetch per round trip
+   * @throws SQLException if a database access error occurs
+   * @since 3.5.0
+   */
+  public static void applyCursorFetchHints(Statement statement, int fetchSize) throws SQLException {
+    Connection connection = statement.getConnection();
+    String product = connection.getMetaData().getDatabaseProductName();
+    product = product == null ? "" : product.toLowerCase(Locale.ENGLISH);
+    if (product.contains("postgresql")) {
+      if (!connection.getAutoCommit()) {
+        statement.setFetchSize(fetchSize);
+      }
+    } else if (product.contains("mysql") || product.contains("mariadb")) {
+      if (statement.getResultSetType() == ResultSet.TYPE_FORWARD_ONLY
+          && statement.getResultSetConcurrency() == ResultSet.CONCUR_READ_ONLY) {
+        statement.setFetchSize(Integer.MIN_VALUE);
+      }
+    } else {
+      statement.setFetchSize(fetchSize);
+    }
+  }
+
 }
@@ -66,6 +66,10 @@ public class BoundSql {
     return additionalParameters.containsKey(paramName);
   }
 
+  boolean hasAdditionalParameterRoot(String paramName) {
+    return !additionalParameters.isEmpty() && additionalParameters.containsKey(paramName);
+  }
+
   public void setAdditionalParameter(String name, Object value) {
     metaParameters.setValue(name, value);
   }
@@ -23,10 +23,16 @@ import java.util.Properties;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
+import org.apache.ibatis.cache.CacheValueCodec;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.Weigher;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.InvalidationBusCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.RefreshingCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
@@ -43,7 +49,12 @@ public class CacheBuilder {
   private final List<Class<? extends Cache>> decorators;
   private Integer size;
   private Long clearInterval;
+  private Long refreshInterval;
   private boolean readWrite;
+  private CacheValueCodec valueCodec;
+  private CacheInvalidationTransport invalidationTransport;
+  private EvictionListener evictionListener;
+  private Weigher weigher;
   private Properties properties;
   private boolean blocking;
 
@@ -74,11 +85,51 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder refreshInterval(Long refreshInterval) {
+    this.refreshInterval = refreshInterval;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder valueCodec(CacheValueCodec valueCodec) {
+    this.valueCodec = valueCodec;
+    return this;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder invalidationTransport(CacheInvalidationTransport invalidationTransport) {
+    this.invalidationTransport = invalidationTransport;
+    return this;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder evictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+    return this;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder weigher(Weigher weigher) {
+    this.weigher = weigher;
+    return this;
+  }
+
   public CacheBuilder blocking(boolean blocking) {
     this.blocking = blocking;
     return this;
@@ -92,16 +143,27 @@ public class CacheBuilder {
   public Cache build() {
     setDefaultImplementations();
     Cache cache = newBaseCacheInstance(implementation, id);
+    setCollaborators(cache);
     setCacheProperties(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
+        setCollaborators(cache);
         setCacheProperties(cache);
       }
       cache = setStandardDecorators(cache);
-    } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+    } else {
+      if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
+        cache = new LoggingCache(cache);
+      }
+      if (invalidationTransport != null) {
+        cache = new InvalidationBusCache(cache, invalidationTransport);
+      }
+    }
+    if (refreshInterval != null) {
+      cache = new RefreshingCache(cache);
+      ((RefreshingCache) cache).setRefreshInterval(refreshInterval);
     }
     return cache;
   }
@@ -126,12 +188,17 @@ public class CacheBuilder {
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
       if (readWrite) {
-        cache = new SerializedCache(cache);
+        cache = valueCodec == null ? new SerializedCache(cache) : new SerializedCache(cache, valueCodec);
       }
       cache = new LoggingCache(cache);
       cache = new SynchronizedCache(cache);
+      if (invalidationTransport != null) {
+        // inside the blocking cache, whose removeObject only releases locks
+        cache = new InvalidationBusCache(cache, invalidationTransport);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
+        setCacheProperties(cache);
       }
       return cache;
     } catch (Exception e) {
@@ -139,6 +206,18 @@ public class CacheBuilder {
     }
   }
 
+  private void setCollaborators(Cache cache) {
+    MetaObject metaCache = SystemMetaObject.forObject(cache);
+    setCollaborator(metaCache, "evictionListener", EvictionListener.class, evictionListener);
+    setCollaborator(metaCache, "weigher", Weigher.class, weigher);
+  }
+
+  private <T> void setCollaborator(MetaObject metaCache, String name, Class<T> type, T value) {
+    if (value != null && metaCache.hasSetter(name) && metaCache.getSetterType(name).isAssignableFrom(type)) {
+      metaCache.setValue(name, value);
+    }
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
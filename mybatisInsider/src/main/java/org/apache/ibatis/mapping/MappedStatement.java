@@ -18,6 +18,8 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -33,6 +35,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public final class MappedStatement {
 
+  private static final int MAX_PARAMETER_BINDING_PLANS = 8;
+
   private String resource;
   private Configuration configuration;
   private String id;
@@ -46,6 +50,7 @@ public final class MappedStatement {
   private List<ResultMap> resultMaps;
   private boolean flushCacheRequired;
   private boolean useCache;
+  private boolean useLocalCache;
   private boolean resultOrdered;
   private SqlCommandType sqlCommandType;
   private KeyGenerator keyGenerator;
@@ -56,6 +61,10 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private String[] tables;
+  // the plan used last, checked before the map so that a statement with a single layout does not hash it
+  private volatile ParameterBindingPlan parameterBindingPlan;
+  private final ConcurrentMap<ParameterBindingPlan.Layout, ParameterBindingPlan> parameterBindingPlans = new ConcurrentHashMap<>();
 
   MappedStatement() {
     // constructor disabled
@@ -79,6 +88,7 @@ public final class MappedStatement {
       }
       mappedStatement.statementLog = LogFactory.getLog(logId);
       mappedStatement.lang = configuration.getDefaultScriptingLanguageInstance();
+      mappedStatement.useLocalCache = true;
     }
 
     public Builder resource(String resource) {
@@ -138,6 +148,14 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.5.0
+     */
+    public Builder useLocalCache(boolean useLocalCache) {
+      mappedStatement.useLocalCache = useLocalCache;
+      return this;
+    }
+
     public Builder resultOrdered(boolean resultOrdered) {
       mappedStatement.resultOrdered = resultOrdered;
       return this;
@@ -180,6 +198,14 @@ public final class MappedStatement {
       return this;
     }
     
+    /**
+     * @since 3.5.0
+     */
+    public Builder tables(String tables) {
+      mappedStatement.tables = delimitedStringToArray(tables);
+      return this;
+    }
+
     public MappedStatement build() {
       assert mappedStatement.configuration != null;
       assert mappedStatement.id != null;
@@ -254,6 +280,14 @@ public final class MappedStatement {
     return useCache;
   }
 
+  /**
+   * Returns whether results are kept in the session local cache after the top-level query that loaded them.
+   * @since 3.5.0
+   */
+  public boolean isUseLocalCache() {
+    return useLocalCache;
+  }
+
   public boolean isResultOrdered() {
     return resultOrdered;
   }
@@ -282,6 +316,15 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the tables declared by the statement, used for table level cache invalidation,
+   * or {@code null} if they were not declared.
+   * @since 3.5.0
+   */
+  public String[] getTables() {
+    return tables;
+  }
+
   /** @deprecated Use {@link #getResultSets()} */
   @Deprecated
   public String[] getResulSets() {
@@ -309,6 +352,32 @@ public final class MappedStatement {
     return boundSql;
   }
 
+  /**
+   * Returns a binding plan for the mappings of the given {@link BoundSql}, reusing one built for this statement with
+   * the same mapping layout and parameter type. A few plans are kept, so that
+   * dynamic SQL alternating between a few layouts, or a statement called with a few parameter types, keeps hitting.
+   */
+  public ParameterBindingPlan getParameterBindingPlan(BoundSql boundSql, Object parameterObject) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    Class<?> parameterType = parameterObject == null ? null : parameterObject.getClass();
+    ParameterBindingPlan plan = parameterBindingPlan;
+    if (plan != null && plan.matches(parameterMappings, parameterType)) {
+      return plan;
+    }
+    ParameterBindingPlan.Layout layout = new ParameterBindingPlan.Layout(parameterMappings, parameterType);
+    plan = parameterBindingPlans.get(layout);
+    if (plan == null) {
+      if (parameterBindingPlans.size() >= MAX_PARAMETER_BINDING_PLANS) {
+        // too many layouts to be worth tracking which ones are still in use
+        parameterBindingPlans.clear();
+      }
+      plan = ParameterBindingPlan.build(configuration, parameterMappings, parameterType);
+      parameterBindingPlans.put(layout, plan);
+    }
+    parameterBindingPlan = plan;
+    return plan;
+  }
+
   private static String[] delimitedStringToArray(String in) {
     if (in == null || in.trim().length() == 0) {
       return null;
@@ -0,0 +1,273 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.BindingResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Precomputed recipe for binding the parameter mappings of a {@link BoundSql} to a statement.
+ * <p>
+ * A plan is built once per parameter mapping layout and parameter class. It resolves, for every
+ * IN parameter, how the value is read (the parameter itself, a map entry, a bean getter, a
+ * {@link BindingResolver} lookup for nested paths or a {@link MetaObject} lookup) together with its {@link TypeHandler}, so binding a
+ * wide statement does not repeat reflection and registry lookups on every execution.
+ */
+public final class ParameterBindingPlan {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final List<ParameterMapping> parameterMappings;
+  private final Class<?> parameterType;
+  private final Binding[] bindings;
+
+  private ParameterBindingPlan(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    this.parameterMappings = parameterMappings;
+    this.parameterType = parameterType;
+    int size = parameterMappings == null ? 0 : parameterMappings.size();
+    this.bindings = new Binding[size];
+    for (int i = 0; i < size; i++) {
+      bindings[i] = new Binding(configuration, i + 1, parameterMappings.get(i), parameterType);
+    }
+  }
+
+  public static ParameterBindingPlan build(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    return new ParameterBindingPlan(configuration, parameterMappings, parameterType);
+  }
+
+  /**
+   * Returns true if this plan can bind the given mappings for a parameter of the given type. Dynamic SQL creates a
+   * new mapping list on every call, so the lists are compared element by element when they are not the same instance.
+   */
+  public boolean matches(List<ParameterMapping> mappings, Class<?> type) {
+    if (type != parameterType) {
+      return false;
+    }
+    if (mappings == parameterMappings) {
+      return true;
+    }
+    if (mappings == null || mappings.size() != bindings.length) {
+      return false;
+    }
+    for (int i = 0; i < bindings.length; i++) {
+      if (!bindings[i].accepts(mappings.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int size() {
+    return bindings.length;
+  }
+
+  public Binding getBinding(int index) {
+    return bindings[index];
+  }
+
+  /**
+   * Cache key of a plan: the parameter type and, for every mapping, the property, type handler, JDBC type and whether
+   * it is an OUT parameter. Two layouts are equal exactly when a plan built for one {@link #matches(List, Class)} the
+   * other.
+   */
+  public static final class Layout {
+
+    private final List<ParameterMapping> parameterMappings;
+    private final Class<?> parameterType;
+    private final int hashCode;
+
+    public Layout(List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+      this.parameterMappings = parameterMappings == null ? Collections.<ParameterMapping>emptyList() : parameterMappings;
+      this.parameterType = parameterType;
+      int hash = parameterType == null ? 0 : parameterType.hashCode();
+      for (ParameterMapping mapping : this.parameterMappings) {
+        hash = 31 * hash + Objects.hashCode(mapping.getProperty());
+        hash = 31 * hash + System.identityHashCode(mapping.getTypeHandler());
+      }
+      this.hashCode = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Layout)) {
+        return false;
+      }
+      Layout other = (Layout) o;
+      if (hashCode != other.hashCode || parameterType != other.parameterType
+          || parameterMappings.size() != other.parameterMappings.size()) {
+        return false;
+      }
+      for (int i = 0; i < parameterMappings.size(); i++) {
+        ParameterMapping mapping = parameterMappings.get(i);
+        ParameterMapping otherMapping = other.parameterMappings.get(i);
+        if (mapping.getTypeHandler() != otherMapping.getTypeHandler()
+            || mapping.getJdbcType() != otherMapping.getJdbcType()
+            || (mapping.getMode() == ParameterMode.OUT) != (otherMapping.getMode() == ParameterMode.OUT)
+            || !Objects.equals(mapping.getProperty(), otherMapping.getProperty())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private enum Access {
+    SKIP, SELF, MAP, GETTER, PATH, META_OBJECT
+  }
+
+  /**
+   * Binding of a single placeholder.
+   */
+  public static final class Binding {
+
+    private final ParameterMapping parameterMapping;
+    private final int position;
+    private final String property;
+    private final String rootName;
+    private final TypeHandler<?> typeHandler;
+    private final JdbcType jdbcType;
+    private final Access access;
+    private final Invoker getter;
+    private final BindingResolver bindingResolver;
+
+    private Binding(Configuration configuration, int position, ParameterMapping parameterMapping, Class<?> parameterType) {
+      this.parameterMapping = parameterMapping;
+      this.position = position;
+      this.property = parameterMapping.getProperty();
+      this.rootName = property == null ? null : new PropertyTokenizer(property).getName();
+      this.typeHandler = parameterMapping.getTypeHandler();
+      this.jdbcType = parameterMapping.getJdbcType();
+      Invoker resolvedGetter = null;
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        this.access = Access.SKIP;
+      } else if (parameterType == null) {
+        this.access = Access.META_OBJECT;
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType)) {
+        this.access = Access.SELF;
+      } else if (!(configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)
+          || property == null || property.indexOf('[') >= 0) {
+        this.access = Access.META_OBJECT;
+      } else if (property.indexOf('.') >= 0) {
+        this.access = Access.PATH;
+      } else if (Map.class.isAssignableFrom(parameterType)) {
+        this.access = Access.MAP;
+      } else {
+        Reflector reflector = configuration.getReflectorFactory().findForClass(parameterType);
+        if (!Iterable.class.isAssignableFrom(parameterType) && reflector.hasGetter(property)) {
+          this.access = Access.GETTER;
+          resolvedGetter = reflector.getGetInvoker(property);
+        } else {
+          this.access = Access.META_OBJECT;
+        }
+      }
+      this.getter = resolvedGetter;
+      this.bindingResolver = configuration.getBindingResolver();
+    }
+
+    private boolean accepts(ParameterMapping other) {
+      return other.getTypeHandler() == typeHandler
+          && other.getJdbcType() == jdbcType
+          && (other.getMode() == ParameterMode.OUT) == (access == Access.SKIP)
+          && (property == null ? other.getProperty() == null : property.equals(other.getProperty()));
+    }
+
+    public ParameterMapping getParameterMapping() {
+      return parameterMapping;
+    }
+
+    public int getPosition() {
+      return position;
+    }
+
+    public boolean isInput() {
+      return access != Access.SKIP;
+    }
+
+    @SuppressWarnings("rawtypes")
+    public TypeHandler getTypeHandler() {
+      return typeHandler;
+    }
+
+    public JdbcType getJdbcType() {
+      return jdbcType;
+    }
+
+    /**
+     * Reads the value to bind. {@code metaParameter} is only used for nested property paths and may be shared
+     * by all bindings of one execution.
+     */
+    public Object getValue(BoundSql boundSql, Object parameterObject, MetaObject metaParameter) {
+      if (boundSql.hasAdditionalParameterRoot(rootName)) { // issue #448 ask first for additional params
+        return boundSql.getAdditionalParameter(property);
+      } else if (parameterObject == null) {
+        return null;
+      }
+      switch (access) {
+        case SELF:
+          return parameterObject;
+        case MAP:
+          return ((Map<?, ?>) parameterObject).get(property);
+        case GETTER:
+          return invokeGetter(parameterObject);
+        case PATH:
+          return bindingResolver.getValue(parameterObject, property);
+        default:
+          return metaParameter.getValue(property);
+      }
+    }
+
+    public boolean needsMetaObject() {
+      return access == Access.META_OBJECT;
+    }
+
+    private Object invokeGetter(Object parameterObject) {
+      try {
+        try {
+          return getter.invoke(parameterObject, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + property + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In process collector backed by lock free counters and histograms.
+ */
+public class DefaultMetricsCollector implements MetricsCollector {
+
+  private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+  private final LatencyHistogram connectionCheckout = new LatencyHistogram();
+
+  @Override
+  public void recordPhase(String statementId, ExecutionPhase phase, long elapsedNanos) {
+    statementMetrics(statementId).phases[phase.ordinal()].record(elapsedNanos);
+  }
+
+  @Override
+  public void recordRowsFetched(String statementId, long rows) {
+    statementMetrics(statementId).rowsFetched.add(rows);
+  }
+
+  @Override
+  public void recordRowsAffected(String statementId, long rows) {
+    if (rows > 0) {
+      statementMetrics(statementId).rowsAffected.add(rows);
+    }
+  }
+
+  @Override
+  public void recordCacheAccess(String statementId, CacheLevel level, boolean hit) {
+    StatementMetrics metrics = statementMetrics(statementId);
+    int index = level.ordinal() * 2 + (hit ? 0 : 1);
+    metrics.cacheAccesses[index].increment();
+  }
+
+  @Override
+  public void recordConnectionCheckout(long waitNanos) {
+    connectionCheckout.record(waitNanos);
+  }
+
+  @Override
+  public MetricsSnapshot snapshot() {
+    Map<String, StatementMetricsSnapshot> result = new TreeMap<>();
+    for (Map.Entry<String, StatementMetrics> entry : statements.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    }
+    return new MetricsSnapshot(result, connectionCheckout.snapshot());
+  }
+
+  private StatementMetrics statementMetrics(String statementId) {
+    // get first, computeIfAbsent locks the bin even when the key is present
+    StatementMetrics metrics = statements.get(statementId);
+    if (metrics == null) {
+      metrics = statements.computeIfAbsent(statementId, k -> new StatementMetrics());
+    }
+    return metrics;
+  }
+
+  private static class StatementMetrics {
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[ExecutionPhase.values().length];
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder rowsAffected = new LongAdder();
+    // local hit, local miss, second level hit, second level miss
+    private final LongAdder[] cacheAccesses = new LongAdder[CacheLevel.values().length * 2];
+
+    StatementMetrics() {
+      for (int i = 0; i < phases.length; i++) {
+        phases[i] = new LatencyHistogram();
+      }
+      for (int i = 0; i < cacheAccesses.length; i++) {
+        cacheAccesses[i] = new LongAdder();
+      }
+    }
+
+    StatementMetricsSnapshot snapshot(String statementId) {
+      Map<ExecutionPhase, HistogramSnapshot> latencies = new EnumMap<>(ExecutionPhase.class);
+      for (ExecutionPhase phase : ExecutionPhase.values()) {
+        latencies.put(phase, phases[phase.ordinal()].snapshot());
+      }
+      return new StatementMetricsSnapshot(statementId, latencies, rowsFetched.sum(), rowsAffected.sum(),
+          cacheAccesses[0].sum(), cacheAccesses[1].sum(), cacheAccesses[2].sum(), cacheAccesses[3].sum());
+    }
+  }
+
+}
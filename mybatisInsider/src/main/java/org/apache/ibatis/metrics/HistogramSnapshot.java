@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * Immutable view of a {@link LatencyHistogram}. All values are in nanoseconds.
+ */
+public class HistogramSnapshot {
+
+  static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[0], 0, 0, 0);
+
+  private final long[] buckets;
+  private final long count;
+  private final long total;
+  private final long max;
+
+  HistogramSnapshot(long[] buckets, long count, long total, long max) {
+    this.buckets = buckets;
+    this.count = count;
+    this.total = total;
+    this.max = max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public long getMean() {
+    return count == 0 ? 0 : total / count;
+  }
+
+  /**
+   * @param quantile a value between 0 and 1, e.g. 0.99
+   * @return the upper bound of the bucket holding the requested quantile, capped at the observed maximum
+   */
+  public long getPercentile(double quantile) {
+    long observed = 0;
+    for (long c : buckets) {
+      observed += c;
+    }
+    if (observed == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(quantile * observed);
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return Math.min(LatencyHistogram.upperBoundOf(i), max);
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + count + ", mean=" + getMean() + ", p50=" + getPercentile(0.5)
+        + ", p99=" + getPercentile(0.99) + ", max=" + max;
+  }
+
+}
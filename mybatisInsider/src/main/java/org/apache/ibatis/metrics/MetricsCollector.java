@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * Receives measurements taken while statements are executed.
+ * <p>
+ * Implementations are called on the hot path of every query, so they must be thread safe
+ * and should not block.
+ *
+ * @see org.apache.ibatis.session.Configuration#setMetricsCollector(MetricsCollector)
+ */
+public interface MetricsCollector {
+
+  void recordPhase(String statementId, ExecutionPhase phase, long elapsedNanos);
+
+  void recordRowsFetched(String statementId, long rows);
+
+  void recordRowsAffected(String statementId, long rows);
+
+  void recordCacheAccess(String statementId, CacheLevel level, boolean hit);
+
+  /**
+   * Records the time a caller spent obtaining a connection from a pooled data source.
+   */
+  void recordConnectionCheckout(long waitNanos);
+
+  MetricsSnapshot snapshot();
+
+}
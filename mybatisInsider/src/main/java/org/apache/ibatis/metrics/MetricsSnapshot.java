@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point in time view of all measurements held by a {@link MetricsCollector}.
+ */
+public class MetricsSnapshot {
+
+  public static final MetricsSnapshot EMPTY = new MetricsSnapshot(Collections.<String, StatementMetricsSnapshot>emptyMap(), HistogramSnapshot.EMPTY);
+
+  private final Map<String, StatementMetricsSnapshot> statements;
+  private final HistogramSnapshot connectionCheckout;
+
+  public MetricsSnapshot(Map<String, StatementMetricsSnapshot> statements, HistogramSnapshot connectionCheckout) {
+    this.statements = Collections.unmodifiableMap(statements);
+    this.connectionCheckout = connectionCheckout;
+  }
+
+  /**
+   * @return snapshots keyed by mapped statement id
+   */
+  public Map<String, StatementMetricsSnapshot> getStatements() {
+    return statements;
+  }
+
+  public StatementMetricsSnapshot getStatement(String statementId) {
+    return statements.get(statementId);
+  }
+
+  public HistogramSnapshot getConnectionCheckout() {
+    return connectionCheckout;
+  }
+
+}
@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * Default collector that discards every measurement.
+ */
+public final class NoOpMetricsCollector implements MetricsCollector {
+
+  public static final NoOpMetricsCollector INSTANCE = new NoOpMetricsCollector();
+
+  @Override
+  public void recordPhase(String statementId, ExecutionPhase phase, long elapsedNanos) {
+  }
+
+  @Override
+  public void recordRowsFetched(String statementId, long rows) {
+  }
+
+  @Override
+  public void recordRowsAffected(String statementId, long rows) {
+  }
+
+  @Override
+  public void recordCacheAccess(String statementId, CacheLevel level, boolean hit) {
+  }
+
+  @Override
+  public void recordConnectionCheckout(long waitNanos) {
+  }
+
+  @Override
+  public MetricsSnapshot snapshot() {
+    return MetricsSnapshot.EMPTY;
+  }
+
+}
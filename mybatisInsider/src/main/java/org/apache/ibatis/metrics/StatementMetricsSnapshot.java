@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Point in time view of the measurements recorded for one mapped statement.
+ */
+public class StatementMetricsSnapshot {
+
+  private final String statementId;
+  private final Map<ExecutionPhase, HistogramSnapshot> phases;
+  private final long rowsFetched;
+  private final long rowsAffected;
+  private final long localCacheHits;
+  private final long localCacheMisses;
+  private final long secondLevelCacheHits;
+  private final long secondLevelCacheMisses;
+
+  public StatementMetricsSnapshot(String statementId, Map<ExecutionPhase, HistogramSnapshot> phases,
+      long rowsFetched, long rowsAffected, long localCacheHits, long localCacheMisses,
+      long secondLevelCacheHits, long secondLevelCacheMisses) {
+    this.statementId = statementId;
+    this.phases = new EnumMap<>(phases);
+    this.rowsFetched = rowsFetched;
+    this.rowsAffected = rowsAffected;
+    this.localCacheHits = localCacheHits;
+    this.localCacheMisses = localCacheMisses;
+    this.secondLevelCacheHits = secondLevelCacheHits;
+    this.secondLevelCacheMisses = secondLevelCacheMisses;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public HistogramSnapshot getLatency(ExecutionPhase phase) {
+    HistogramSnapshot histogram = phases.get(phase);
+    return histogram == null ? HistogramSnapshot.EMPTY : histogram;
+  }
+
+  public long getRowsFetched() {
+    return rowsFetched;
+  }
+
+  public long getRowsAffected() {
+    return rowsAffected;
+  }
+
+  public long getCacheHits(CacheLevel level) {
+    return level == CacheLevel.LOCAL ? localCacheHits : secondLevelCacheHits;
+  }
+
+  public long getCacheMisses(CacheLevel level) {
+    return level == CacheLevel.LOCAL ? localCacheMisses : secondLevelCacheMisses;
+  }
+
+  @Override
+  public String toString() {
+    return statementId + " {prepare=[" + getLatency(ExecutionPhase.PREPARE) + "], execute=[" + getLatency(ExecutionPhase.EXECUTE)
+        + "], map=[" + getLatency(ExecutionPhase.MAP) + "], rowsFetched=" + rowsFetched + ", rowsAffected=" + rowsAffected
+        + ", localCache=" + localCacheHits + "/" + (localCacheHits + localCacheMisses)
+        + ", secondLevelCache=" + secondLevelCacheHits + "/" + (secondLevelCacheHits + secondLevelCacheMisses) + "}";
+  }
+
+}
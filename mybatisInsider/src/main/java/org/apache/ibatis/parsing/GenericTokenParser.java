@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.parsing;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Clinton Begin
  */
@@ -33,6 +36,23 @@ public class GenericTokenParser {
     }
 
     public String parse(String text) {
+        return parse(text, null);
+    }
+
+    /**
+     * Splits the text into literal text and token contents, without calling the handler. Even indexes hold the literal
+     * text between tokens and odd indexes the content of a token, both unescaped as by {@link #parse(String)}.
+     *
+     * @since 3.5.0
+     */
+    public List<String> split(String text) {
+        List<String> segments = new ArrayList<>();
+        segments.add(parse(text, segments));
+        return segments;
+    }
+
+    // when segments is not null, the text before each token and the token are added to it instead of calling the handler
+    private String parse(String text, List<String> segments) {
         //检测text是否为空
         if (text == null || text.isEmpty()) {
             return "";
@@ -87,7 +107,13 @@ public class GenericTokenParser {
                     offset = src.length;
                 } else {
                     //将占位符的字面值交给TokenHandler处理，并将处理结果追加到builder中保存，最终拼凑出解析后的完整内容
-                    builder.append(handler.handleToken(expression.toString()));
+                    if (segments == null) {
+                        builder.append(handler.handleToken(expression.toString()));
+                    } else {
+                        segments.add(builder.toString());
+                        builder.setLength(0);
+                        segments.add(expression.toString());
+                    }
                     offset = end + closeToken.length();
                 }
             }
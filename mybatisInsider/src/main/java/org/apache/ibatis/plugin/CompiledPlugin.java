@@ -0,0 +1,191 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Single proxy that dispatches to every interceptor interested in a method, used when
+ * compiled interception is enabled.
+ * <p>
+ * The interceptors that apply to each method of a target class are resolved once by
+ * {@link #compile(Class, List, Map)}, so wrapping an object creates one proxy regardless of
+ * the number of plugins, and methods no plugin intercepts are called on the target through a
+ * prepared {@link MethodHandle}, without reflection or allocating an {@link Invocation}.
+ *
+ * @see InterceptorChain#setCompiled(boolean)
+ */
+public class CompiledPlugin implements InvocationHandler {
+
+  // (Object target, Object[] args) -> Object
+  private static final MethodType DIRECT_CALL = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private final Object target;
+  private final Dispatcher dispatcher;
+
+  private CompiledPlugin(Object target, Dispatcher dispatcher) {
+    this.target = target;
+    this.dispatcher = dispatcher;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    MethodHandle direct = dispatcher.directCalls.get(method);
+    if (direct != null) {
+      // exceptions thrown by the target propagate unwrapped
+      return direct.invokeExact(target, args);
+    }
+    try {
+      Interceptor[] interceptors = dispatcher.dispatchTable.get(method);
+      if (interceptors == null) {
+        return method.invoke(target, args);
+      }
+      return interceptors[0].intercept(new ChainedInvocation(target, method, args, interceptors, 1));
+    } catch (Exception e) {
+      throw ExceptionUtil.unwrapThrowable(e);
+    }
+  }
+
+  /**
+   * Resolves which interceptors apply to the methods of {@code type}.
+   *
+   * @param type the target class
+   * @param interceptors the interceptors in registration order
+   * @param signatureMaps the resolved {@link Intercepts} signatures of each interceptor
+   * @return the compiled dispatcher, or {@link Dispatcher#NONE} if no interceptor applies to {@code type}
+   */
+  static Dispatcher compile(Class<?> type, List<Interceptor> interceptors, Map<Interceptor, Map<Class<?>, Set<Method>>> signatureMaps) {
+    Set<Class<?>> interfaces = new LinkedHashSet<>();
+    Map<Method, List<Interceptor>> chains = new HashMap<>();
+    // the last registered interceptor wraps the others, so it runs first
+    for (int i = interceptors.size() - 1; i >= 0; i--) {
+      Interceptor interceptor = interceptors.get(i);
+      Map<Class<?>, Set<Method>> signatureMap = signatureMaps.get(interceptor);
+      for (Class<?> c : Plugin.getAllInterfaces(type, signatureMap)) {
+        interfaces.add(c);
+        for (Method method : signatureMap.get(c)) {
+          chains.computeIfAbsent(method, k -> new ArrayList<>()).add(interceptor);
+        }
+      }
+    }
+    if (interfaces.isEmpty()) {
+      return Dispatcher.NONE;
+    }
+    Map<Method, Interceptor[]> dispatchTable = new HashMap<>();
+    for (Map.Entry<Method, List<Interceptor>> entry : chains.entrySet()) {
+      dispatchTable.put(entry.getKey(), entry.getValue().toArray(new Interceptor[entry.getValue().size()]));
+    }
+    Map<Method, MethodHandle> directCalls = new HashMap<>();
+    for (Class<?> c : interfaces) {
+      for (Method method : c.getMethods()) {
+        putDirectCall(directCalls, dispatchTable, method);
+      }
+    }
+    // the Object methods a proxy forwards to its handler
+    try {
+      putDirectCall(directCalls, dispatchTable, Object.class.getMethod("hashCode"));
+      putDirectCall(directCalls, dispatchTable, Object.class.getMethod("equals", Object.class));
+      putDirectCall(directCalls, dispatchTable, Object.class.getMethod("toString"));
+    } catch (NoSuchMethodException e) {
+      throw new PluginException("Could not create plugin proxy for " + type + ". Cause: " + e, e);
+    }
+    return new Dispatcher(type.getClassLoader(), interfaces.toArray(new Class<?>[interfaces.size()]), dispatchTable,
+        directCalls);
+  }
+
+  private static void putDirectCall(Map<Method, MethodHandle> directCalls, Map<Method, Interceptor[]> dispatchTable,
+      Method method) {
+    if (Modifier.isStatic(method.getModifiers()) || dispatchTable.containsKey(method)
+        || directCalls.containsKey(method)) {
+      return;
+    }
+    try {
+      MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+      directCalls.put(method, handle.asSpreader(Object[].class, method.getParameterCount()).asType(DIRECT_CALL));
+    } catch (IllegalAccessException e) {
+      // e.g. a non-public interface, left to reflection
+    }
+  }
+
+  static class Dispatcher {
+
+    static final Dispatcher NONE = new Dispatcher(null, null, null, null);
+
+    private final ClassLoader classLoader;
+    private final Class<?>[] interfaces;
+    private final Map<Method, Interceptor[]> dispatchTable;
+    private final Map<Method, MethodHandle> directCalls;
+
+    private Dispatcher(ClassLoader classLoader, Class<?>[] interfaces, Map<Method, Interceptor[]> dispatchTable,
+        Map<Method, MethodHandle> directCalls) {
+      this.classLoader = classLoader;
+      this.interfaces = interfaces;
+      this.dispatchTable = dispatchTable;
+      this.directCalls = directCalls;
+    }
+
+    Object wrap(Object target) {
+      if (this == NONE) {
+        return target;
+      }
+      // the proxy class is generated once per class loader and interfaces, and cached by Proxy
+      return Proxy.newProxyInstance(classLoader, interfaces, new CompiledPlugin(target, this));
+    }
+  }
+
+  private static class ChainedInvocation extends Invocation {
+
+    private final Interceptor[] interceptors;
+    private final int next;
+
+    ChainedInvocation(Object target, Method method, Object[] args, Interceptor[] interceptors, int next) {
+      super(target, method, args);
+      this.interceptors = interceptors;
+      this.next = next;
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException, IllegalAccessException {
+      if (next == interceptors.length) {
+        return super.proceed();
+      }
+      try {
+        return interceptors[next].intercept(new ChainedInvocation(getTarget(), getMethod(), getArgs(), interceptors, next + 1));
+      } catch (InvocationTargetException | IllegalAccessException e) {
+        throw e;
+      } catch (Throwable t) {
+        // same as calling through a nested plugin proxy
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+}
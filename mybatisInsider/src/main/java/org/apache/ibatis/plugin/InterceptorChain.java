@@ -15,9 +15,15 @@
  */
 package org.apache.ibatis.plugin;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Clinton Begin
@@ -25,8 +31,13 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  private final ConcurrentMap<Class<?>, CompiledPlugin.Dispatcher> dispatchers = new ConcurrentHashMap<>();
+  private boolean compiled;
 
   public Object pluginAll(Object target) {
+    if (compiled) {
+      return interceptors.isEmpty() ? target : dispatcherFor(target.getClass()).wrap(target);
+    }
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
     }
@@ -35,6 +46,35 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    dispatchers.clear();
+  }
+
+  /**
+   * When compiled, {@link Interceptor#plugin(Object)} is not called. Each target is wrapped by
+   * at most one proxy whose per method dispatch table is built from the {@link Intercepts}
+   * signatures of all interceptors, once per target class.
+   *
+   * @since 3.5.0
+   */
+  public void setCompiled(boolean compiled) {
+    this.compiled = compiled;
+  }
+
+  public boolean isCompiled() {
+    return compiled;
+  }
+
+  private CompiledPlugin.Dispatcher dispatcherFor(Class<?> type) {
+    CompiledPlugin.Dispatcher dispatcher = dispatchers.get(type);
+    if (dispatcher == null) {
+      Map<Interceptor, Map<Class<?>, Set<Method>>> signatureMaps = new IdentityHashMap<>();
+      for (Interceptor interceptor : interceptors) {
+        signatureMaps.put(interceptor, Plugin.getSignatureMap(interceptor));
+      }
+      dispatcher = CompiledPlugin.compile(type, interceptors, signatureMaps);
+      dispatchers.putIfAbsent(type, dispatcher);
+    }
+    return dispatcher;
   }
   
   public List<Interceptor> getInterceptors() {
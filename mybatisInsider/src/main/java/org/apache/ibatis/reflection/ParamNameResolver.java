@@ -18,12 +18,15 @@ package org.apache.ibatis.reflection;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
 
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.binding.ArrayParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -47,6 +50,13 @@ public class ParamNameResolver {
    */
   private final SortedMap<Integer, String> names;
 
+  /**
+   * Argument positions of the named parameters and the names, including the generic names
+   * ("param1", "param2", ...), resolved once so {@link #getNamedParams(Object[])} only wraps the arguments.
+   */
+  private final int[] argIndexes;
+  private final ArrayParamMap.Shape shape;
+
   private boolean hasParamAnnotation;
 
   public ParamNameResolver(Configuration config, Method method) {
@@ -82,6 +92,21 @@ public class ParamNameResolver {
       map.put(paramIndex, name);
     }
     names = Collections.unmodifiableSortedMap(map);
+    argIndexes = new int[map.size()];
+    final Map<String, Integer> index = new LinkedHashMap<>();
+    int i = 0;
+    for (Map.Entry<Integer, String> entry : map.entrySet()) {
+      argIndexes[i] = entry.getKey();
+      index.put(entry.getValue(), entry.getKey());
+      // add generic param names (param1, param2, ...)
+      final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
+      // ensure not to overwrite parameter named with @Param
+      if (!map.containsValue(genericParamName)) {
+        index.put(genericParamName, entry.getKey());
+      }
+      i++;
+    }
+    shape = new ArrayParamMap.Shape(index.keySet().toArray(new String[index.size()]), new HashMap<>(index));
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -107,29 +132,35 @@ public class ParamNameResolver {
    * A single non-special parameter is returned without a name.
    * Multiple parameters are named using the naming rule.
    * In addition to the default names, this method also adds the generic names (param1, param2,
-   * ...).
+   * ...). The returned map reads the values from {@code args} without copying them.
    * </p>
    */
   public Object getNamedParams(Object[] args) {
-    final int paramCount = names.size();
+    final int paramCount = argIndexes.length;
     if (args == null || paramCount == 0) {
       return null;
     } else if (!hasParamAnnotation && paramCount == 1) {
-      return args[names.firstKey()];
+      return args[argIndexes[0]];
     } else {
-      final Map<String, Object> param = new ParamMap<>();
-      int i = 0;
-      for (Map.Entry<Integer, String> entry : names.entrySet()) {
-        param.put(entry.getValue(), args[entry.getKey()]);
-        // add generic param names (param1, param2, ...)
-        final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-        // ensure not to overwrite parameter named with @Param
-        if (!names.containsValue(genericParamName)) {
-          param.put(genericParamName, args[entry.getKey()]);
-        }
-        i++;
-      }
-      return param;
+      return new ArrayParamMap(shape, args);
+    }
+  }
+
+  /**
+   * Returns {@link #getNamedParams(Object[])} specialized for the parameters of the method, for callers that
+   * convert the arguments of the same method on every call. The function expects the arguments of a call to the
+   * method, which are only {@code null} when it has no parameter.
+   *
+   * @since 3.5.0
+   */
+  public Function<Object[], Object> compileNamedParams() {
+    if (argIndexes.length == 0) {
+      return args -> null;
+    } else if (!hasParamAnnotation && argIndexes.length == 1) {
+      final int argIndex = argIndexes[0];
+      return args -> args[argIndex];
+    } else {
+      return args -> new ArrayParamMap(shape, args);
     }
   }
 }
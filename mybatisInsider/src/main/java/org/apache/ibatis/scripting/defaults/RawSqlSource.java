@@ -16,6 +16,7 @@
 package org.apache.ibatis.scripting.defaults;
 
 import java.util.HashMap;
+import java.util.List;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
@@ -37,7 +38,10 @@ public class RawSqlSource implements SqlSource {
   private final SqlSource sqlSource;
 
   public RawSqlSource(Configuration configuration, SqlNode rootSqlNode, Class<?> parameterType) {
-    this(configuration, getSql(configuration, rootSqlNode), parameterType);
+    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+    Class<?> clazz = parameterType == null ? Object.class : parameterType;
+    // placeholders already parsed by the nodes are not parsed again
+    sqlSource = sqlSourceParser.parse(getSqlFragments(configuration, rootSqlNode), clazz, new HashMap<String, Object>());
   }
 
   public RawSqlSource(Configuration configuration, String sql, Class<?> parameterType) {
@@ -46,10 +50,10 @@ public class RawSqlSource implements SqlSource {
     sqlSource = sqlSourceParser.parse(sql, clazz, new HashMap<String, Object>());
   }
 
-  private static String getSql(Configuration configuration, SqlNode rootSqlNode) {
+  private static List<Object> getSqlFragments(Configuration configuration, SqlNode rootSqlNode) {
     DynamicContext context = new DynamicContext(configuration, null);
     rootSqlNode.apply(context);
-    return context.getSql();
+    return context.getSqlFragments();
   }
 
   @Override
@@ -0,0 +1,180 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reads property paths such as <code>author.address.city</code> from parameter objects, with the same result as
+ * {@link MetaObject#getValue(String)}.
+ * <p>
+ * The getters along a path are resolved once per parameter class and path, and later lookups call them directly
+ * instead of tokenizing the path and wrapping every object on the way. Paths with indexes, objects that need an
+ * {@link ObjectWrapper} and custom object wrapper factories are read through a {@link MetaObject}, as is the rest of
+ * a path once an object's class differs from the one the path was resolved for.
+ *
+ * @since 3.5.0
+ */
+public final class BindingResolver {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+  private static final Chain UNSUPPORTED = new Chain(new String[0], new String[0], new Class<?>[0], new Invoker[0]);
+
+  private final Configuration configuration;
+  private final ConcurrentMap<Class<?>, ConcurrentMap<String, Chain>> chains = new ConcurrentHashMap<>();
+
+  public BindingResolver(Configuration configuration) {
+    this.configuration = configuration;
+  }
+
+  public Object getValue(Object object, String expression) {
+    if (object == null || expression == null
+        || !(configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)) {
+      return configuration.newMetaObject(object).getValue(expression);
+    }
+    ConcurrentMap<String, Chain> classChains = chains.get(object.getClass());
+    if (classChains == null) {
+      classChains = chains.computeIfAbsent(object.getClass(), k -> new ConcurrentHashMap<>());
+    }
+    Chain chain = classChains.get(expression);
+    if (chain == null) {
+      chain = Chain.resolve(configuration, object, expression);
+      if (chain == null) {
+        // an object on the path was null, so the rest of the path could not be resolved yet
+        return null;
+      }
+      classChains.putIfAbsent(expression, chain);
+    }
+    if (chain == UNSUPPORTED) {
+      return configuration.newMetaObject(object).getValue(expression);
+    }
+    return chain.getValue(configuration, object);
+  }
+
+  private static boolean isBean(Object object) {
+    return !(object instanceof ObjectWrapper) && !(object instanceof Map) && !(object instanceof Collection);
+  }
+
+  private static final class Chain {
+
+    private final String[] names;
+    // the rest of the path from each step, used when falling back to a MetaObject
+    private final String[] paths;
+    private final Class<?>[] types;
+    // null for map entries
+    private final Invoker[] getters;
+
+    private Chain(String[] names, String[] paths, Class<?>[] types, Invoker[] getters) {
+      this.names = names;
+      this.paths = paths;
+      this.types = types;
+      this.getters = getters;
+    }
+
+    /**
+     * Returns the chain of the path on the given object, {@link #UNSUPPORTED} if it must be read through a
+     * {@link MetaObject}, or null if an object on the path is null.
+     */
+    static Chain resolve(Configuration configuration, Object object, String expression) {
+      int steps = 1;
+      for (int i = 0; i < expression.length(); i++) {
+        char c = expression.charAt(i);
+        if (c == '[') {
+          return UNSUPPORTED;
+        } else if (c == '.') {
+          steps++;
+        }
+      }
+      String[] names = new String[steps];
+      String[] paths = new String[steps];
+      Class<?>[] types = new Class<?>[steps];
+      Invoker[] getters = new Invoker[steps];
+      PropertyTokenizer prop = new PropertyTokenizer(expression);
+      Object value = object;
+      for (int i = 0; i < steps; i++) {
+        if (i > 0) {
+          paths[i] = prop.getChildren();
+          prop = prop.next();
+        } else {
+          paths[i] = expression;
+        }
+        names[i] = prop.getName();
+        types[i] = value.getClass();
+        if (value instanceof Map) {
+          getters[i] = null;
+        } else if (isBean(value)) {
+          Reflector reflector = configuration.getReflectorFactory().findForClass(value.getClass());
+          if (!reflector.hasGetter(names[i])) {
+            return UNSUPPORTED;
+          }
+          getters[i] = reflector.getGetInvoker(names[i]);
+        } else {
+          return UNSUPPORTED;
+        }
+        if (i < steps - 1) {
+          value = getters[i] == null ? ((Map<?, ?>) value).get(names[i]) : invoke(getters[i], value, names[i]);
+          if (value == null) {
+            return null;
+          }
+        }
+      }
+      return new Chain(names, paths, types, getters);
+    }
+
+    Object getValue(Configuration configuration, Object object) {
+      Object value = object;
+      for (int i = 0; i < getters.length; i++) {
+        if (i > 0) {
+          if (value == null) {
+            return null;
+          } else if (value.getClass() != types[i]) {
+            return configuration.newMetaObject(value).getValue(paths[i]);
+          }
+        }
+        value = getters[i] == null ? ((Map<?, ?>) value).get(names[i]) : invoke(getters[i], value, names[i]);
+      }
+      return value;
+    }
+
+    private static Object invoke(Invoker getter, Object object, String name) {
+      try {
+        try {
+          return getter.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -15,7 +15,9 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import ognl.OgnlContext;
@@ -23,7 +25,8 @@ import ognl.OgnlException;
 import ognl.OgnlRuntime;
 import ognl.PropertyAccessor;
 
-import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.builder.ParameterPlaceholder;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -38,16 +41,18 @@ public class DynamicContext {
     OgnlRuntime.setPropertyAccessor(ContextMap.class, new ContextAccessor());
   }
 
+  private static final String SPACE = " ";
+
   private final ContextMap bindings;
-  private final StringBuilder sqlBuilder = new StringBuilder();
+  // text fragments and parameter mappings, joined once the whole statement has been applied
+  private final List<Object> sqlFragments = new ArrayList<>();
   private int uniqueNumber = 0;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
     if (parameterObject != null && !(parameterObject instanceof Map)) {
-      MetaObject metaObject = configuration.newMetaObject(parameterObject);
-      bindings = new ContextMap(metaObject);
+      bindings = new ContextMap(configuration.getBindingResolver(), parameterObject);
     } else {
-      bindings = new ContextMap(null);
+      bindings = new ContextMap(null, null);
     }
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
@@ -62,12 +67,69 @@ public class DynamicContext {
   }
 
   public void appendSql(String sql) {
-    sqlBuilder.append(sql);
-    sqlBuilder.append(" ");
+    sqlFragments.add(sql);
+    sqlFragments.add(SPACE);
+  }
+
+  /**
+   * Appends a placeholder whose mapping has already been built. Unlike {@link #appendSql(String)}, no space follows it.
+   *
+   * @since 3.5.0
+   */
+  public void appendParameter(ParameterMapping parameterMapping) {
+    sqlFragments.add(parameterMapping);
   }
 
+  /**
+   * Appends text made of strings, {@link ParameterPlaceholder}s and {@link ParameterMapping}s, such as the text a
+   * node split when the mapper was loaded. Like {@link #appendSql(String)}, a space follows the whole text.
+   *
+   * @since 3.5.0
+   */
+  public void appendSegments(List<?> segments) {
+    sqlFragments.addAll(segments);
+    sqlFragments.add(SPACE);
+  }
+
+  /**
+   * Returns the SQL with the placeholders added by {@link #appendParameter(ParameterMapping)} written as
+   * <code>#{property}</code>.
+   */
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    return joinFragments(sqlFragments);
+  }
+
+  /**
+   * Returns the SQL appended so far as strings, {@link ParameterPlaceholder}s and {@link ParameterMapping}s, in order.
+   *
+   * @since 3.5.0
+   */
+  public List<Object> getSqlFragments() {
+    return sqlFragments;
+  }
+
+  private static String joinFragments(List<Object> fragments) {
+    int length = 0;
+    for (Object fragment : fragments) {
+      length += fragment instanceof String ? ((String) fragment).length() : 16;
+    }
+    StringBuilder sql = new StringBuilder(length);
+    for (Object fragment : fragments) {
+      if (fragment instanceof ParameterMapping) {
+        sql.append("#{").append(((ParameterMapping) fragment).getProperty()).append('}');
+      } else {
+        sql.append(fragment);
+      }
+    }
+    int start = 0;
+    int end = sql.length();
+    while (start < end && sql.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sql.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sql.substring(start, end);
   }
 
   public int getUniqueNumber() {
@@ -77,9 +139,11 @@ public class DynamicContext {
   static class ContextMap extends HashMap<String, Object> {
     private static final long serialVersionUID = 2977601501966151582L;
 
-    private MetaObject parameterMetaObject;
-    public ContextMap(MetaObject parameterMetaObject) {
-      this.parameterMetaObject = parameterMetaObject;
+    private BindingResolver bindingResolver;
+    private Object parameterObject;
+    public ContextMap(BindingResolver bindingResolver, Object parameterObject) {
+      this.bindingResolver = bindingResolver;
+      this.parameterObject = parameterObject;
     }
 
     @Override
@@ -89,9 +153,9 @@ public class DynamicContext {
         return super.get(strKey);
       }
 
-      if (parameterMetaObject != null) {
+      if (parameterObject != null) {
         // issue #61 do not modify the context when reading
-        return parameterMetaObject.getValue(strKey);
+        return bindingResolver.getValue(parameterObject, strKey);
       }
 
       return null;
@@ -106,7 +170,7 @@ public class DynamicContext {
       Map map = (Map) target;
 
       Object result = map.get(name);
-      if (map.containsKey(name) || result != null) {
+      if (result != null || map.containsKey(name)) {
         return result;
       }
 
@@ -29,10 +29,27 @@ public class DynamicSqlSource implements SqlSource {
 
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final ForEachSqlNode chunkedForEach;
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
+    this(configuration, rootSqlNode, null);
+  }
+
+  /**
+   * @param chunkedForEach the <code>&lt;foreach&gt;</code> of the statement that declares a chunk size, if any
+   * @since 3.5.0
+   */
+  public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode, ForEachSqlNode chunkedForEach) {
     this.configuration = configuration;
     this.rootSqlNode = rootSqlNode;
+    this.chunkedForEach = chunkedForEach;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public ForEachSqlNode getChunkedForEach() {
+    return chunkedForEach;
   }
 
   @Override
@@ -41,7 +58,7 @@ public class DynamicSqlSource implements SqlSource {
     rootSqlNode.apply(context);
     SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    SqlSource sqlSource = sqlSourceParser.parse(context.getSqlFragments(), parameterType, context.getBindings());
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     for (Map.Entry<String, Object> entry : context.getBindings().entrySet()) {
       boundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
@@ -15,10 +15,17 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.builder.ParameterPlaceholder;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
 
 /**
  * @author Clinton Begin
@@ -35,8 +42,28 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
   private final Configuration configuration;
+  private final ForEachTemplate template;
+  private final int chunkSize;
+  private final boolean chunkParallel;
+  private final boolean chunkPadding;
+  private final boolean bindAsArray;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, 0, false, false, false);
+  }
+
+  /**
+   * @param chunkSize when positive, a session runs the statement once per chunk of this many elements if the
+   *        collection is larger, see {@link org.apache.ibatis.session.SqlSession#selectList(String, Object)}
+   * @param chunkParallel whether chunks of a select may run concurrently on separate connections
+   * @param chunkPadding whether the last chunk is filled up with its last element, so that every chunk renders the
+   *        same SQL; only correct when repeating an element does not change the result, as in an IN list
+   * @param bindAsArray whether a body made of a single item placeholder binds the whole collection as one SQL array,
+   *        on databases that have a {@link Configuration#getForeachArrayExpression(String) foreach array expression}
+   * @since 3.5.0
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator,
+      int chunkSize, boolean chunkParallel, boolean chunkPadding, boolean bindAsArray) {
     this.evaluator = new ExpressionEvaluator();
     this.collectionExpression = collectionExpression;
     this.contents = contents;
@@ -46,6 +73,39 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.template = ForEachTemplate.compile(configuration, contents, item, index);
+    this.chunkSize = chunkSize;
+    this.chunkParallel = chunkParallel;
+    this.chunkPadding = chunkPadding;
+    this.bindAsArray = bindAsArray && template != null && template.isItemPlaceholder();
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public String getCollectionExpression() {
+    return collectionExpression;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isChunkParallel() {
+    return chunkParallel;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isChunkPadding() {
+    return chunkPadding;
   }
 
   @Override
@@ -55,6 +115,17 @@ public class ForEachSqlNode implements SqlNode {
     if (!iterable.iterator().hasNext()) {
       return true;
     }
+    if (bindAsArray) {
+      String arrayExpression = configuration.getForeachArrayExpression(configuration.getDatabaseId());
+      if (arrayExpression != null) {
+        applyArray(context, iterable, arrayExpression);
+        return true;
+      }
+    }
+    if (template != null) {
+      applyTemplate(context, iterable);
+      return true;
+    }
     boolean first = true;
     applyOpen(context);
     int i = 0;
@@ -89,6 +160,46 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
+  private void applyTemplate(DynamicContext context, Iterable<?> iterable) {
+    String valuesName = ITEM_PREFIX + context.getUniqueNumber();
+    List<Object> values = iterable instanceof Collection
+        ? new ArrayList<>(((Collection<?>) iterable).size() * template.getSlotCount()) : new ArrayList<>();
+    context.bind(valuesName, values);
+    applyOpen(context);
+    int i = 0;
+    for (Object o : iterable) {
+      if (i > 0 && separator != null) {
+        context.appendSql(separator);
+      }
+      // Issue #709
+      if (o instanceof Map.Entry) {
+        Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) o;
+        template.render(context, valuesName, values, mapEntry.getValue(), mapEntry.getKey());
+      } else {
+        template.render(context, valuesName, values, o, i);
+      }
+      i++;
+    }
+    applyClose(context);
+  }
+
+  private void applyArray(DynamicContext context, Iterable<?> iterable, String arrayExpression) {
+    String valuesName = ITEM_PREFIX + context.getUniqueNumber();
+    List<Object> values = iterable instanceof Collection ? new ArrayList<>(((Collection<?>) iterable).size()) : new ArrayList<>();
+    for (Object o : iterable) {
+      values.add(template.itemValue(o instanceof Map.Entry ? ((Map.Entry<?, ?>) o).getValue() : o));
+    }
+    context.bind(valuesName, values);
+    TypeHandler<?> arrayTypeHandler = configuration.getTypeHandlerRegistry().getTypeHandler(JdbcType.ARRAY);
+    int placeholder = arrayExpression.indexOf('?');
+    applyOpen(context);
+    context.appendSql(arrayExpression.substring(0, placeholder));
+    context.appendParameter(new ParameterMapping.Builder(configuration, valuesName, arrayTypeHandler)
+        .jdbcType(JdbcType.ARRAY).build());
+    context.appendSql(arrayExpression.substring(placeholder + 1));
+    applyClose(context);
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -150,22 +261,49 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-        if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-        }
-        return "#{" + newContent + "}";
-      });
+      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> "#{" + itemize(content) + "}");
 
       delegate.appendSql(parser.parse(sql));
     }
 
+    @Override
+    public void appendSegments(List<?> segments) {
+      List<Object> itemized = null;
+      for (int i = 0; i < segments.size(); i++) {
+        Object segment = segments.get(i);
+        if (segment instanceof ParameterPlaceholder) {
+          String content = ((ParameterPlaceholder) segment).getContent();
+          String newContent = itemize(content);
+          if (!newContent.equals(content)) {
+            if (itemized == null) {
+              itemized = new ArrayList<>(segments);
+            }
+            // left to the token parser, like the placeholders of appended text
+            itemized.set(i, "#{" + newContent + "}");
+          }
+        }
+      }
+      delegate.appendSegments(itemized == null ? segments : itemized);
+    }
+
+    private String itemize(String content) {
+      String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
+      if (itemIndex != null && newContent.equals(content)) {
+        newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
+      }
+      return newContent;
+    }
+
     @Override
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
     }
 
+    @Override
+    public void appendParameter(ParameterMapping parameterMapping) {
+      delegate.appendParameter(parameterMapping);
+    }
+
   }
 
 
@@ -213,6 +351,24 @@ public class ForEachSqlNode implements SqlNode {
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
     }
+
+    @Override
+    public void appendParameter(ParameterMapping parameterMapping) {
+      if (!prefixApplied) {
+        delegate.appendSql(prefix);
+        prefixApplied = true;
+      }
+      delegate.appendParameter(parameterMapping);
+    }
+
+    @Override
+    public void appendSegments(List<?> segments) {
+      if (!prefixApplied) {
+        delegate.appendSql(prefix);
+        prefixApplied = true;
+      }
+      delegate.appendSegments(segments);
+    }
   }
 
 }
@@ -0,0 +1,241 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.ParameterExpression;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Body of a <code>&lt;foreach&gt;</code> made only of static text, split once into literal text and the
+ * <code>#{}</code> placeholders that refer to the item or the index.
+ * <p>
+ * Rendering an element appends the literals and a ready made {@link ParameterMapping} per slot, and adds the slot values
+ * to a positional list bound under a single name. Unlike the general path it neither binds <code>__frch_</code> entries
+ * per element nor parses the body again.
+ */
+final class ForEachTemplate {
+
+  private final Configuration configuration;
+  private final String[] literals;
+  private final Slot[] slots;
+
+  private ForEachTemplate(Configuration configuration, List<String> literals, List<Slot> slots) {
+    this.configuration = configuration;
+    this.literals = literals.toArray(new String[0]);
+    this.slots = slots.toArray(new Slot[0]);
+  }
+
+  /**
+   * Returns the template of the given body, or null if the body is dynamic or uses placeholder options the template
+   * does not handle, in which case the general path must be used.
+   */
+  static ForEachTemplate compile(Configuration configuration, SqlNode contents, String item, String index) {
+    String text = staticText(contents);
+    // escaped tokens are left to the token parser
+    if (text == null || text.trim().isEmpty() || text.indexOf('\\') >= 0) {
+      return null;
+    }
+    List<String> literals = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int offset = 0;
+    int start = text.indexOf("#{");
+    while (start >= 0) {
+      int end = text.indexOf('}', start + 2);
+      if (end < 0) {
+        break;
+      }
+      Map<String, String> expression;
+      try {
+        expression = new ParameterExpression(text.substring(start + 2, end));
+      } catch (RuntimeException e) {
+        return null;
+      }
+      String property = expression.get("property");
+      boolean onItem = refersTo(property, item);
+      String target = onItem ? item : refersTo(property, index) ? index : null;
+      if (target == null) {
+        // not about the element, resolved against the bindings as usual
+        literal.append(text, offset, end + 1);
+      } else {
+        Slot slot = Slot.compile(configuration, expression, !onItem,
+            property.length() > target.length() ? property.substring(target.length() + 1) : null);
+        if (slot == null) {
+          return null;
+        }
+        literal.append(text, offset, start);
+        literals.add(literal.toString());
+        literal.setLength(0);
+        slots.add(slot);
+      }
+      offset = end + 1;
+      start = text.indexOf("#{", offset);
+    }
+    literal.append(text, offset, text.length());
+    literals.add(literal.toString());
+    return new ForEachTemplate(configuration, literals, slots);
+  }
+
+  private static String staticText(SqlNode contents) {
+    if (contents instanceof StaticTextSqlNode) {
+      return ((StaticTextSqlNode) contents).getText();
+    }
+    if (!(contents instanceof MixedSqlNode)) {
+      return null;
+    }
+    StringBuilder text = new StringBuilder();
+    for (SqlNode node : ((MixedSqlNode) contents).getContents()) {
+      if (!(node instanceof StaticTextSqlNode)) {
+        return null;
+      }
+      text.append(((StaticTextSqlNode) node).getText()).append(' ');
+    }
+    return text.toString();
+  }
+
+  private static boolean refersTo(String property, String name) {
+    return name != null && property != null && property.startsWith(name)
+        && (property.length() == name.length() || property.charAt(name.length()) == '.');
+  }
+
+  /**
+   * Returns true if the body is nothing but a placeholder of the item or of one of its properties.
+   */
+  boolean isItemPlaceholder() {
+    return slots.length == 1 && !slots[0].index && literals[0].trim().isEmpty() && literals[1].trim().isEmpty();
+  }
+
+  /**
+   * Returns the value of the placeholder of an {@link #isItemPlaceholder() item placeholder} body.
+   */
+  Object itemValue(Object item) {
+    String path = slots[0].path;
+    if (path == null || item == null) {
+      return path == null ? item : null;
+    }
+    return configuration.getBindingResolver().getValue(item, path);
+  }
+
+  int getSlotCount() {
+    return slots.length;
+  }
+
+  /**
+   * Appends one element to the context. Placeholder values are added to {@code values}, which the caller binds as
+   * {@code valuesName}.
+   */
+  void render(DynamicContext context, String valuesName, List<Object> values, Object item, Object index) {
+    MetaObject metaItem = null;
+    MetaObject metaIndex = null;
+    for (int i = 0; i < slots.length; i++) {
+      Slot slot = slots[i];
+      Object target = slot.index ? index : item;
+      Object value;
+      Class<?> type;
+      if (slot.path == null || target == null) {
+        value = slot.path == null ? target : null;
+        type = value == null ? Object.class : value.getClass();
+      } else {
+        MetaObject metaTarget;
+        if (slot.index) {
+          metaTarget = metaIndex == null ? metaIndex = configuration.newMetaObject(target) : metaIndex;
+        } else {
+          metaTarget = metaItem == null ? metaItem = configuration.newMetaObject(target) : metaItem;
+        }
+        value = metaTarget.getValue(slot.path);
+        type = metaTarget.getGetterType(slot.path);
+      }
+      String property = valuesName + '[' + values.size() + ']';
+      values.add(value);
+      if (!literals[i].isEmpty()) {
+        context.appendSql(literals[i]);
+      }
+      context.appendParameter(slot.newParameterMapping(configuration, property, type));
+    }
+    // always appended, so that a space follows the last placeholder
+    context.appendSql(literals[slots.length]);
+  }
+
+  private static final class Slot {
+
+    private final boolean index;
+    private final String path;
+    private final Class<?> javaType;
+    private final JdbcType jdbcType;
+    private final Integer numericScale;
+    private final String jdbcTypeName;
+
+    private Slot(boolean index, String path, Class<?> javaType, JdbcType jdbcType, Integer numericScale, String jdbcTypeName) {
+      this.index = index;
+      this.path = path;
+      this.javaType = javaType;
+      this.jdbcType = jdbcType;
+      this.numericScale = numericScale;
+      this.jdbcTypeName = jdbcTypeName;
+    }
+
+    static Slot compile(Configuration configuration, Map<String, String> expression, boolean index, String path) {
+      Class<?> javaType = null;
+      JdbcType jdbcType = null;
+      Integer numericScale = null;
+      String jdbcTypeName = null;
+      try {
+        for (Map.Entry<String, String> entry : expression.entrySet()) {
+          String name = entry.getKey();
+          String value = entry.getValue();
+          if ("javaType".equals(name)) {
+            javaType = configuration.getTypeAliasRegistry().resolveAlias(value);
+          } else if ("jdbcType".equals(name)) {
+            jdbcType = JdbcType.valueOf(value);
+          } else if ("numericScale".equals(name)) {
+            numericScale = Integer.valueOf(value);
+          } else if ("jdbcTypeName".equals(name)) {
+            jdbcTypeName = value;
+          } else if (!"property".equals(name)) {
+            // mode, resultMap, typeHandler and invalid options take the general path
+            return null;
+          }
+        }
+      } catch (RuntimeException e) {
+        return null;
+      }
+      return new Slot(index, path, javaType, jdbcType, numericScale, jdbcTypeName);
+    }
+
+    ParameterMapping newParameterMapping(Configuration configuration, String property, Class<?> valueType) {
+      ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property,
+          javaType == null ? valueType : javaType);
+      if (jdbcType != null) {
+        builder.jdbcType(jdbcType);
+      }
+      if (numericScale != null) {
+        builder.numericScale(numericScale);
+      }
+      if (jdbcTypeName != null) {
+        builder.jdbcTypeName(jdbcTypeName);
+      }
+      return builder.build();
+    }
+  }
+
+}
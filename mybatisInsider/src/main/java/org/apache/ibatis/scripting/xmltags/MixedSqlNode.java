@@ -27,6 +27,10 @@ public class MixedSqlNode implements SqlNode {
     this.contents = contents;
   }
 
+  List<SqlNode> getContents() {
+    return contents;
+  }
+
   @Override
   public boolean apply(DynamicContext context) {
     for (SqlNode sqlNode : contents) {
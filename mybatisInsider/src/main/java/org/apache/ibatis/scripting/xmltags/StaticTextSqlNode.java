@@ -15,19 +15,63 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.builder.ParameterPlaceholder;
+import org.apache.ibatis.parsing.GenericTokenParser;
+
 /**
  * @author Clinton Begin
  */
 public class StaticTextSqlNode implements SqlNode {
   private final String text;
+  // literal text and parsed #{} placeholders, or null if the text is appended as is
+  private final List<Object> segments;
 
   public StaticTextSqlNode(String text) {
     this.text = text;
+    this.segments = split(text);
+  }
+
+  private static List<Object> split(String text) {
+    // escaped tokens are left to the token parser
+    if (text == null || !text.contains("#{") || text.indexOf('\\') >= 0) {
+      return null;
+    }
+    List<String> parts = new GenericTokenParser("#{", "}", null).split(text);
+    if (parts.size() == 1) {
+      return null;
+    }
+    List<Object> segments = new ArrayList<>(parts.size());
+    for (int i = 0; i < parts.size(); i++) {
+      if (i % 2 == 0) {
+        if (!parts.get(i).isEmpty()) {
+          segments.add(parts.get(i));
+        }
+      } else {
+        ParameterPlaceholder placeholder = ParameterPlaceholder.parse(parts.get(i));
+        if (placeholder == null) {
+          return null;
+        }
+        segments.add(placeholder);
+      }
+    }
+    return Collections.unmodifiableList(segments);
+  }
+
+  String getText() {
+    return text;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    context.appendSql(text);
+    if (segments == null) {
+      context.appendSql(text);
+    } else {
+      context.appendSegments(segments);
+    }
     return true;
   }
 
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -28,6 +29,8 @@ import org.apache.ibatis.type.SimpleTypeRegistry;
 public class TextSqlNode implements SqlNode {
   private final String text;
   private final Pattern injectionFilter;
+  // literal text at even indexes and ${} expressions at odd indexes, split once
+  private final String[] segments;
 
   public TextSqlNode(String text) {
     this(text, null);
@@ -36,25 +39,28 @@ public class TextSqlNode implements SqlNode {
   public TextSqlNode(String text, Pattern injectionFilter) {
     this.text = text;
     this.injectionFilter = injectionFilter;
+    List<String> parts = new GenericTokenParser("${", "}", null).split(text);
+    this.segments = parts.toArray(new String[0]);
   }
   
   public boolean isDynamic() {
-    DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
-    GenericTokenParser parser = createParser(checker);
-    parser.parse(text);
-    return checker.isDynamic();
+    return segments.length > 1;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    context.appendSql(parser.parse(text));
+    if (segments.length == 1) {
+      context.appendSql(segments[0]);
+      return true;
+    }
+    BindingTokenParser handler = new BindingTokenParser(context, injectionFilter);
+    StringBuilder sql = new StringBuilder(text.length());
+    for (int i = 0; i < segments.length; i++) {
+      sql.append(i % 2 == 0 ? segments[i] : handler.handleToken(segments[i]));
+    }
+    context.appendSql(sql.toString());
     return true;
   }
-  
-  private GenericTokenParser createParser(TokenHandler handler) {
-    return new GenericTokenParser("${", "}", handler);
-  }
 
   private static class BindingTokenParser implements TokenHandler {
 
@@ -86,24 +92,5 @@ public class TextSqlNode implements SqlNode {
       }
     }
   }
-  
-  private static class DynamicCheckerTokenParser implements TokenHandler {
-
-    private boolean isDynamic;
-
-    public DynamicCheckerTokenParser() {
-      // Prevent Synthetic Access
-    }
 
-    public boolean isDynamic() {
-      return isDynamic;
-    }
-
-    @Override
-    public String handleToken(String content) {
-      this.isDynamic = true;
-      return null;
-    }
-  }
-  
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
 
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -73,24 +74,38 @@ public class TrimSqlNode implements SqlNode {
     private DynamicContext delegate;
     private boolean prefixApplied;
     private boolean suffixApplied;
-    private StringBuilder sqlBuffer;
+    // strings, parameter placeholders and mappings, joined without spaces
+    private final List<Object> fragments;
 
     public FilteredDynamicContext(DynamicContext delegate) {
       super(configuration, null);
       this.delegate = delegate;
       this.prefixApplied = false;
       this.suffixApplied = false;
-      this.sqlBuffer = new StringBuilder();
+      this.fragments = new ArrayList<>();
     }
 
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      trim();
+      if (fragments.isEmpty()) {
+        delegate.appendSql("");
+        return;
       }
-      delegate.appendSql(sqlBuffer.toString());
+      // overrides are matched against the first and last few characters only, the body is never upper-cased
+      String head = head(maxLength(prefixesToOverride));
+      String tail = tail(maxLength(suffixesToOverride));
+      applyPrefix(head);
+      applySuffix(tail);
+      // appended as one piece, so that a trim nested in another one gets the same spaces as a plain context
+      List<Object> sql = new ArrayList<>(fragments.size() + 2);
+      if (prefix != null) {
+        sql.add(prefix + " ");
+      }
+      sql.addAll(fragments);
+      if (suffix != null) {
+        sql.add(" " + suffix);
+      }
+      delegate.appendSegments(sql);
     }
 
     @Override
@@ -110,7 +125,17 @@ public class TrimSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      sqlBuffer.append(sql);
+      fragments.add(sql);
+    }
+
+    @Override
+    public void appendParameter(ParameterMapping parameterMapping) {
+      fragments.add(parameterMapping);
+    }
+
+    @Override
+    public void appendSegments(List<?> segments) {
+      fragments.addAll(segments);
     }
 
     @Override
@@ -118,44 +143,132 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void trim() {
+      while (!fragments.isEmpty() && fragments.get(0) instanceof String) {
+        String text = (String) fragments.get(0);
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+          start++;
+        }
+        if (start < text.length()) {
+          fragments.set(0, text.substring(start));
+          break;
+        }
+        fragments.remove(0);
+      }
+      while (!fragments.isEmpty() && fragments.get(fragments.size() - 1) instanceof String) {
+        int last = fragments.size() - 1;
+        String text = (String) fragments.get(last);
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) <= ' ') {
+          end--;
+        }
+        if (end > 0) {
+          fragments.set(last, text.substring(0, end));
+          break;
+        }
+        fragments.remove(last);
+      }
+    }
+
+    private String head(int length) {
+      StringBuilder head = new StringBuilder(length);
+      for (int i = 0; i < fragments.size() && head.length() < length; i++) {
+        Object fragment = fragments.get(i);
+        if (fragment instanceof String) {
+          String text = (String) fragment;
+          head.append(text, 0, Math.min(text.length(), length - head.length()));
+        } else {
+          head.append('?');
+        }
+      }
+      return head.toString();
+    }
+
+    private String tail(int length) {
+      StringBuilder tail = new StringBuilder(length);
+      for (int i = fragments.size() - 1; i >= 0 && tail.length() < length; i--) {
+        Object fragment = fragments.get(i);
+        if (fragment instanceof String) {
+          String text = (String) fragment;
+          tail.insert(0, text, Math.max(0, text.length() - (length - tail.length())), text.length());
+        } else {
+          tail.insert(0, '?');
+        }
+      }
+      return tail.toString();
+    }
+
+    private void removeHead(int length) {
+      while (length > 0 && !fragments.isEmpty()) {
+        Object fragment = fragments.get(0);
+        int fragmentLength = fragment instanceof String ? ((String) fragment).length() : 1;
+        if (fragmentLength <= length) {
+          fragments.remove(0);
+        } else {
+          fragments.set(0, ((String) fragment).substring(length));
+        }
+        length -= fragmentLength;
+      }
+    }
+
+    private void removeTail(int length) {
+      while (length > 0 && !fragments.isEmpty()) {
+        int last = fragments.size() - 1;
+        Object fragment = fragments.get(last);
+        int fragmentLength = fragment instanceof String ? ((String) fragment).length() : 1;
+        if (fragmentLength <= length) {
+          fragments.remove(last);
+        } else {
+          String text = (String) fragment;
+          fragments.set(last, text.substring(0, text.length() - length));
+        }
+        length -= fragmentLength;
+      }
+    }
+
+    private void applyPrefix(String head) {
       if (!prefixApplied) {
         prefixApplied = true;
         if (prefixesToOverride != null) {
           for (String toRemove : prefixesToOverride) {
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
-              sql.delete(0, toRemove.trim().length());
+            if (head.regionMatches(true, 0, toRemove, 0, toRemove.length())) {
+              removeHead(toRemove.trim().length());
               break;
             }
           }
         }
-        if (prefix != null) {
-          sql.insert(0, " ");
-          sql.insert(0, prefix);
-        }
       }
     }
 
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applySuffix(String tail) {
       if (!suffixApplied) {
         suffixApplied = true;
         if (suffixesToOverride != null) {
           for (String toRemove : suffixesToOverride) {
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
+            if (endsWithIgnoreCase(tail, toRemove) || endsWithIgnoreCase(tail, toRemove.trim())) {
+              removeTail(toRemove.trim().length());
               break;
             }
           }
         }
-        if (suffix != null) {
-          sql.append(" ");
-          sql.append(suffix);
-        }
       }
     }
 
+    private boolean endsWithIgnoreCase(String text, String suffix) {
+      return text.regionMatches(true, text.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+  }
+
+  private static int maxLength(List<String> overrides) {
+    int length = 0;
+    if (overrides != null) {
+      for (String override : overrides) {
+        length = Math.max(length, override.length());
+      }
+    }
+    return length;
   }
 
 }
@@ -36,6 +36,7 @@ public class XMLScriptBuilder extends BaseBuilder {
 
   private final XNode context;
   private boolean isDynamic;
+  private ForEachSqlNode chunkedForEach;
   private final Class<?> parameterType;
   private final Map<String, NodeHandler> nodeHandlerMap = new HashMap<>();
 
@@ -67,7 +68,7 @@ public class XMLScriptBuilder extends BaseBuilder {
     MixedSqlNode rootSqlNode = parseDynamicTags(context);
     SqlSource sqlSource = null;
     if (isDynamic) {
-      sqlSource = new DynamicSqlSource(configuration, rootSqlNode);
+      sqlSource = new DynamicSqlSource(configuration, rootSqlNode, chunkedForEach);
     } else {
       sqlSource = new RawSqlSource(configuration, rootSqlNode, parameterType);
     }
@@ -176,7 +177,18 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      Integer chunkSize = nodeToHandle.getIntAttribute("chunkSize");
+      boolean chunkParallel = nodeToHandle.getBooleanAttribute("chunkParallel", false);
+      boolean chunkPadding = nodeToHandle.getBooleanAttribute("chunkPadding", false);
+      boolean bindAsArray = nodeToHandle.getBooleanAttribute("bindAsArray", false);
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator,
+          chunkSize == null ? 0 : chunkSize, chunkParallel, chunkPadding, bindAsArray);
+      if (forEachSqlNode.getChunkSize() > 0) {
+        if (chunkedForEach != null) {
+          throw new BuilderException("Only one <foreach> of a statement can declare a chunkSize.");
+        }
+        chunkedForEach = forEachSqlNode;
+      }
       targetContents.add(forEachSqlNode);
     }
   }
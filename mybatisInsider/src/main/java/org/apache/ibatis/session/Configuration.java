@@ -24,21 +24,37 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
+import org.apache.ibatis.builder.MultiRowInsertSqlSource;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheValueCodec;
+import org.apache.ibatis.cache.LoopbackInvalidationTransport;
+import org.apache.ibatis.cache.SamplingWeigher;
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.TableDependencyIndex;
+import org.apache.ibatis.cache.codec.DeepCopyCodec;
+import org.apache.ibatis.cache.codec.SerializationCodec;
+import org.apache.ibatis.cache.codec.SnapshotCodec;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.executor.BackgroundExecutors;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
@@ -69,6 +85,9 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.metrics.DefaultMetricsCollector;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.NoOpMetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -82,6 +101,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.BindingResolver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -114,10 +134,15 @@ public class Configuration {
   protected Class <? extends Log> logImpl;
   protected Class <? extends VFS> vfsImpl;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected int localCacheSize;
+  protected long localCacheMaxBytes;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer cursorFetchSize;
+  protected int cursorPrefetchBatchSize;
+  protected int cursorPrefetchQueueSize = 4;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -126,6 +151,23 @@ public class Configuration {
   protected ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
   protected ObjectFactory objectFactory = new DefaultObjectFactory();
   protected ObjectWrapperFactory objectWrapperFactory = new DefaultObjectWrapperFactory();
+  protected final BindingResolver bindingResolver = new BindingResolver(this);
+
+  protected MetricsCollector metricsCollector = NoOpMetricsCollector.INSTANCE;
+  protected int[] multiRowInsertChunkSizes = {256, 64, 16, 1};
+  protected int foreachChunkParallelism = 4;
+  protected int foreachChunkWorkers;
+  private ExecutorService foreachChunkExecutor;
+  protected final Map<String, String> foreachArrayExpressions = new HashMap<>();
+  protected CacheValueCodec cacheValueCodec = new DeepCopyCodec();
+  protected CacheInvalidationTransport cacheInvalidationTransport;
+  protected Weigher cacheWeigher = new SamplingWeigher();
+  protected boolean cacheStatisticsEnabled;
+  protected final CacheStatistics cacheStatistics = new CacheStatistics();
+  protected boolean tableLevelCacheInvalidationEnabled;
+  protected int cacheRefreshThreads = 2;
+  protected int cacheRefreshQueueSize = 64;
+  private ExecutorService cacheRefreshExecutor;
 
   protected boolean lazyLoadingEnabled = false;
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
@@ -150,6 +192,8 @@ public class Configuration {
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
+  protected final Map<String, MappedStatement> multiRowInsertStatements = new ConcurrentHashMap<>();
+  protected final TableDependencyIndex tableDependencyIndex = new TableDependencyIndex();
 
   protected final Set<String> loadedResources = new HashSet<>();
   protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
@@ -184,9 +228,20 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
+
+    typeAliasRegistry.registerAlias("SERIALIZATION", SerializationCodec.class);
+    typeAliasRegistry.registerAlias("DEEP_COPY", DeepCopyCodec.class);
+    typeAliasRegistry.registerAlias("SNAPSHOT", SnapshotCodec.class);
+    typeAliasRegistry.registerAlias("LOOPBACK", LoopbackInvalidationTransport.class);
+    typeAliasRegistry.registerAlias("SAMPLING", SamplingWeigher.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
+    foreachArrayExpressions.put("postgresql", "SELECT * FROM UNNEST(?)");
+    foreachArrayExpressions.put("hsqldb", "SELECT * FROM UNNEST(?)");
+    foreachArrayExpressions.put("h2", "SELECT * FROM UNNEST(?)");
+
     typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
     typeAliasRegistry.registerAlias("RAW", RawLanguageDriver.class);
 
@@ -198,6 +253,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("STDOUT_LOGGING", StdOutImpl.class);
     typeAliasRegistry.registerAlias("NO_LOGGING", NoLoggingImpl.class);
 
+    typeAliasRegistry.registerAlias("DEFAULT_METRICS", DefaultMetricsCollector.class);
+
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
@@ -313,6 +370,7 @@ public class Configuration {
 
   public void setEnvironment(Environment environment) {
     this.environment = environment;
+    bindDataSourceMetrics();
   }
 
   public AutoMappingBehavior getAutoMappingBehavior() {
@@ -337,6 +395,36 @@ public class Configuration {
     this.autoMappingUnknownColumnBehavior = autoMappingUnknownColumnBehavior;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public MetricsCollector getMetricsCollector() {
+    return metricsCollector;
+  }
+
+  /**
+   * Set the collector that receives per statement latencies, row counts, cache hits
+   * and connection checkout times. Passing {@code null} disables metrics.
+   * @since 3.5.0
+   */
+  public void setMetricsCollector(MetricsCollector metricsCollector) {
+    this.metricsCollector = metricsCollector == null ? NoOpMetricsCollector.INSTANCE : metricsCollector;
+    bindDataSourceMetrics();
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isMetricsEnabled() {
+    return metricsCollector != NoOpMetricsCollector.INSTANCE;
+  }
+
+  private void bindDataSourceMetrics() {
+    if (environment != null && environment.getDataSource() instanceof PooledDataSource) {
+      ((PooledDataSource) environment.getDataSource()).setMetricsCollector(metricsCollector);
+    }
+  }
+
   public boolean isLazyLoadingEnabled() {
     return lazyLoadingEnabled;
   }
@@ -426,6 +514,59 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public Integer getCursorFetchSize() {
+    return cursorFetchSize;
+  }
+
+  /**
+   * Set the fetch size applied to cursor queries that do not declare one, together with the driver specific
+   * settings needed to stream rows (see {@link org.apache.ibatis.executor.statement.StatementUtil#applyCursorFetchHints}).
+   * {@code null} leaves cursor statements untouched.
+   * <p>
+   * The auto-commit mode of the connection is never changed. PostgreSQL only streams rows outside auto-commit mode,
+   * so on PostgreSQL the hint has no effect in sessions opened with {@code autoCommit=true}, and under a managed
+   * transaction it applies only when the container has switched auto-commit off.
+   * @since 3.5.0
+   */
+  public void setCursorFetchSize(Integer cursorFetchSize) {
+    this.cursorFetchSize = cursorFetchSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getCursorPrefetchBatchSize() {
+    return cursorPrefetchBatchSize;
+  }
+
+  /**
+   * Set the number of rows a cursor maps per batch on a background thread. Zero (the default) maps rows on the
+   * calling thread as they are requested.
+   * @since 3.5.0
+   * @see org.apache.ibatis.cursor.defaults.PrefetchingCursor
+   */
+  public void setCursorPrefetchBatchSize(int cursorPrefetchBatchSize) {
+    this.cursorPrefetchBatchSize = cursorPrefetchBatchSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getCursorPrefetchQueueSize() {
+    return cursorPrefetchQueueSize;
+  }
+
+  /**
+   * Set the number of prefetched batches a cursor may hold before the background thread waits for the caller.
+   * @since 3.5.0
+   */
+  public void setCursorPrefetchQueueSize(int cursorPrefetchQueueSize) {
+    this.cursorPrefetchQueueSize = cursorPrefetchQueueSize;
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -442,6 +583,37 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public int getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  /**
+   * Set the maximum number of results kept in the session local cache; {@code 0} means unbounded.
+   * The least recently used results are evicted once the top-level query completes.
+   * @since 3.5.0
+   */
+  public void setLocalCacheSize(int localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public long getLocalCacheMaxBytes() {
+    return localCacheMaxBytes;
+  }
+
+  /**
+   * Set the approximate number of bytes the session local cache may retain; {@code 0} means unbounded.
+   * @since 3.5.0
+   */
+  public void setLocalCacheMaxBytes(long localCacheMaxBytes) {
+    this.localCacheMaxBytes = localCacheMaxBytes;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -516,6 +688,304 @@ public class Configuration {
     return interceptorChain.getInterceptors();
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isCompiledInterceptionEnabled() {
+    return interceptorChain.isCompiled();
+  }
+
+  /**
+   * Wrap executors and handlers in a single pre-resolved plugin proxy instead of one proxy per interceptor.
+   * @since 3.5.0
+   * @see InterceptorChain#setCompiled(boolean)
+   */
+  public void setCompiledInterceptionEnabled(boolean compiledInterceptionEnabled) {
+    interceptorChain.setCompiled(compiledInterceptionEnabled);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isTableLevelCacheInvalidationEnabled() {
+    return tableLevelCacheInvalidationEnabled;
+  }
+
+  /**
+   * When enabled, writes invalidate only the second level cache entries of queries that read the written tables,
+   * in any namespace, instead of clearing the cache of the writing namespace.
+   * @since 3.5.0
+   * @see TableDependencyIndex
+   */
+  public void setTableLevelCacheInvalidationEnabled(boolean tableLevelCacheInvalidationEnabled) {
+    this.tableLevelCacheInvalidationEnabled = tableLevelCacheInvalidationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public TableDependencyIndex getTableDependencyIndex() {
+    return tableDependencyIndex;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheValueCodec getCacheValueCodec() {
+    return cacheValueCodec;
+  }
+
+  /**
+   * Set the codec read-write second level caches use to copy values on put and get.
+   * Passing {@code null} restores the default field-by-field copy.
+   * @since 3.5.0
+   */
+  public void setCacheValueCodec(CacheValueCodec cacheValueCodec) {
+    this.cacheValueCodec = cacheValueCodec == null ? new DeepCopyCodec() : cacheValueCodec;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isCacheStatisticsEnabled() {
+    return cacheStatisticsEnabled;
+  }
+
+  /**
+   * Enable per cache and per statement hit, miss and load time statistics of the second level cache.
+   * Entry and eviction counts are always available.
+   * @since 3.5.0
+   * @see #getCacheStatistics()
+   */
+  public void setCacheStatisticsEnabled(boolean cacheStatisticsEnabled) {
+    this.cacheStatisticsEnabled = cacheStatisticsEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheStatistics getCacheStatistics() {
+    return cacheStatistics;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Weigher getCacheWeigher() {
+    return cacheWeigher;
+  }
+
+  /**
+   * Set the weigher used to estimate the size of cached results, for {@link #setLocalCacheMaxBytes(long)} and for
+   * second level caches with a <code>maxBytes</code> property. Only caches declared after this call use it.
+   * Passing {@code null} restores the default sampling weigher.
+   * @since 3.5.0
+   */
+  public void setCacheWeigher(Weigher cacheWeigher) {
+    this.cacheWeigher = cacheWeigher == null ? new SamplingWeigher() : cacheWeigher;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getCacheRefreshThreads() {
+    return cacheRefreshThreads;
+  }
+
+  /**
+   * Set how many stale entries of caches with a <code>refreshInterval</code> are reloaded at the same time, each on
+   * its own connection. Takes effect when the first entry is refreshed.
+   * @since 3.5.0
+   */
+  public void setCacheRefreshThreads(int cacheRefreshThreads) {
+    this.cacheRefreshThreads = Math.max(1, cacheRefreshThreads);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getCacheRefreshQueueSize() {
+    return cacheRefreshQueueSize;
+  }
+
+  /**
+   * Set how many refreshes may wait for a free refresh thread. Stale entries found while the queue is full are
+   * returned as they are and refreshed by a later hit. Takes effect when the first entry is refreshed.
+   * @since 3.5.0
+   */
+  public void setCacheRefreshQueueSize(int cacheRefreshQueueSize) {
+    this.cacheRefreshQueueSize = Math.max(1, cacheRefreshQueueSize);
+  }
+
+  /**
+   * Returns the pool that reloads stale entries of caches with a <code>refreshInterval</code>.
+   * @since 3.5.0
+   */
+  public synchronized ExecutorService getCacheRefreshExecutor() {
+    if (cacheRefreshExecutor == null) {
+      cacheRefreshExecutor = BackgroundExecutors.newBoundedPool("cache-refresh", cacheRefreshThreads, cacheRefreshQueueSize);
+    }
+    return cacheRefreshExecutor;
+  }
+
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheInvalidationTransport getCacheInvalidationTransport() {
+    return cacheInvalidationTransport;
+  }
+
+  /**
+   * Set the transport used to share second level cache invalidations with other nodes. Only caches declared after
+   * this call are connected to it; {@code null} keeps caches local.
+   * @since 3.5.0
+   */
+  public void setCacheInvalidationTransport(CacheInvalidationTransport cacheInvalidationTransport) {
+    this.cacheInvalidationTransport = cacheInvalidationTransport;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getForeachChunkParallelism() {
+    return foreachChunkParallelism;
+  }
+
+  /**
+   * Set how many chunks of a <code>&lt;foreach chunkSize="..." chunkParallel="true"&gt;</code> select run at the
+   * same time. Besides the calling session, each of them uses its own connection.
+   * @since 3.5.0
+   */
+  public void setForeachChunkParallelism(int foreachChunkParallelism) {
+    this.foreachChunkParallelism = Math.max(1, foreachChunkParallelism);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getForeachChunkWorkers() {
+    return foreachChunkWorkers;
+  }
+
+  /**
+   * Set how many workers all <code>&lt;foreach chunkSize="..." chunkParallel="true"&gt;</code> selects share. Each
+   * worker holds a connection while it runs, so the default {@code 0} uses the maximum active connections of a
+   * {@link PooledDataSource}, or {@link #getForeachChunkParallelism()} for other data sources. When every worker is
+   * busy, the calling sessions run their chunks themselves. Takes effect when the first chunks run in parallel.
+   * @since 3.5.0
+   */
+  public void setForeachChunkWorkers(int foreachChunkWorkers) {
+    this.foreachChunkWorkers = Math.max(0, foreachChunkWorkers);
+  }
+
+  /**
+   * Returns the pool that runs the chunks of parallel chunked selects besides the calling sessions.
+   * @since 3.5.0
+   * @see #setForeachChunkWorkers(int)
+   */
+  public synchronized ExecutorService getForeachChunkExecutor() {
+    if (foreachChunkExecutor == null) {
+      int workers = foreachChunkWorkers;
+      if (workers == 0) {
+        workers = environment != null && environment.getDataSource() instanceof PooledDataSource
+            ? ((PooledDataSource) environment.getDataSource()).getPoolMaximumActiveConnections()
+            : foreachChunkParallelism;
+      }
+      workers = Math.max(1, workers);
+      foreachChunkExecutor = BackgroundExecutors.newBoundedPool("foreach-chunk", workers, workers);
+    }
+    return foreachChunkExecutor;
+  }
+
+  /**
+   * Returns the SQL that a <code>&lt;foreach bindAsArray="true"&gt;</code> renders for the given database id, with a
+   * single <code>?</code> standing for the collection bound as one SQL array, or {@code null} if the collection is
+   * rendered element by element on this database.
+   * @since 3.5.0
+   */
+  public String getForeachArrayExpression(String databaseId) {
+    return databaseId == null ? null : foreachArrayExpressions.get(databaseId);
+  }
+
+  /**
+   * Set the SQL rendered for array bound <code>&lt;foreach&gt;</code> elements, keyed by database id. Replaces the
+   * defaults, which select from <code>UNNEST(?)</code> on postgresql, hsqldb and h2.
+   * @since 3.5.0
+   * @see #getForeachArrayExpression(String)
+   */
+  public void setForeachArrayExpressions(Map<String, String> foreachArrayExpressions) {
+    for (Map.Entry<String, String> entry : foreachArrayExpressions.entrySet()) {
+      if (entry.getValue().indexOf('?') < 0) {
+        throw new IllegalArgumentException("The foreach array expression of " + entry.getKey() + " has no '?' placeholder.");
+      }
+    }
+    this.foreachArrayExpressions.clear();
+    this.foreachArrayExpressions.putAll(foreachArrayExpressions);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int[] getMultiRowInsertChunkSizes() {
+    return multiRowInsertChunkSizes.clone();
+  }
+
+  /**
+   * Set the row counts used to split a list insert into multi-row VALUES statements. Sizes are used largest first;
+   * a size of one is always added so that any list can be covered.
+   * @since 3.5.0
+   * @see SqlSession#insertMultiRow(String, Collection)
+   */
+  public void setMultiRowInsertChunkSizes(int[] multiRowInsertChunkSizes) {
+    int[] sizes = Arrays.copyOf(multiRowInsertChunkSizes, multiRowInsertChunkSizes.length + 1);
+    sizes[sizes.length - 1] = 1;
+    Arrays.sort(sizes);
+    if (sizes[0] <= 0) {
+      throw new IllegalArgumentException("Multi-row insert chunk sizes must be positive but found " + sizes[0]);
+    }
+    int[] descending = new int[sizes.length];
+    int count = 0;
+    for (int i = sizes.length - 1; i >= 0; i--) {
+      if (count == 0 || descending[count - 1] != sizes[i]) {
+        descending[count++] = sizes[i];
+      }
+    }
+    this.multiRowInsertChunkSizes = Arrays.copyOf(descending, count);
+    multiRowInsertStatements.clear();
+  }
+
+  /**
+   * Returns the largest configured chunk size that does not exceed the given number of remaining rows.
+   * @since 3.5.0
+   */
+  public int getMultiRowInsertChunkSize(int remainingRows) {
+    for (int size : multiRowInsertChunkSizes) {
+      if (size <= remainingRows) {
+        return size;
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Returns the statement derived from the given insert that inserts {@code rows} rows at a time.
+   * Derived statements are built on first use and are not registered as mapped statements.
+   * @since 3.5.0
+   */
+  public MappedStatement getMultiRowInsertStatement(MappedStatement ms, int rows) {
+    String id = ms.getId() + MultiRowInsertSqlSource.MULTI_ROW_SUFFIX + rows;
+    MappedStatement statement = multiRowInsertStatements.get(id);
+    if (statement == null) {
+      statement = MultiRowInsertSqlSource.buildStatement(ms, rows);
+      MappedStatement existing = multiRowInsertStatements.putIfAbsent(id, statement);
+      if (existing != null) {
+        statement = existing;
+      }
+    }
+    return statement;
+  }
+
   public LanguageDriverRegistry getLanguageRegistry() {
     return languageRegistry;
   }
@@ -541,6 +1011,15 @@ public class Configuration {
     return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
   }
 
+  /**
+   * Returns the resolver that reads property paths from parameter objects for dynamic SQL and parameter binding.
+   *
+   * @since 3.5.0
+   */
+  public BindingResolver getBindingResolver() {
+    return bindingResolver;
+  }
+
   public ParameterHandler newParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     ParameterHandler parameterHandler = mappedStatement.getLang().createParameterHandler(mappedStatement, parameterObject, boundSql);
     parameterHandler = (ParameterHandler) interceptorChain.pluginAll(parameterHandler);
@@ -565,6 +1044,14 @@ public class Configuration {
   }
 
   public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+    return newExecutor(transaction, executorType, false);
+  }
+
+  /**
+   * @since 3.5.0
+   * @see SqlSessionFactory#openReadOnlySession()
+   */
+  public Executor newExecutor(Transaction transaction, ExecutorType executorType, boolean readOnly) {
     executorType = executorType == null ? defaultExecutorType : executorType;
     executorType = executorType == null ? ExecutorType.SIMPLE : executorType;
     Executor executor;
@@ -576,7 +1063,7 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, readOnly);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
@@ -604,6 +1091,7 @@ public class Configuration {
 
   public void addCache(Cache cache) {
     caches.put(cache.getId(), cache);
+    cacheStatistics.register(cache);
   }
 
   public Collection<String> getCacheNames() {
@@ -17,6 +17,7 @@ package org.apache.ibatis.session;
 
 import java.io.Closeable;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -186,6 +187,28 @@ public interface SqlSession extends Closeable {
    */
   int insert(String statement, Object parameter);
 
+  /**
+   * Execute an insert statement once for every element of the given collection, rendering
+   * the rows as multi-row VALUES statements of a few fixed sizes so that the SQL stays cacheable.
+   * Generated keys are assigned to the elements when the statement uses generated keys.
+   * Statements that cannot be rendered this way (dynamic SQL, selectKey) are executed row by row.
+   * <p>
+   * The default implementation inserts the rows one by one, so that sessions written before this method keep
+   * compiling.
+   * @param statement Unique identifier matching the single-row insert statement to execute.
+   * @param parameters The rows to insert.
+   * @return int The number of rows affected by the inserts.
+   * @see Configuration#setMultiRowInsertChunkSizes(int[])
+   * @since 3.5.0
+   */
+  default int insertMultiRow(String statement, Collection<?> parameters) {
+    int count = 0;
+    for (Object parameter : parameters) {
+      count += insert(statement, parameter);
+    }
+    return count;
+  }
+
   /**
    * Execute an update statement. The number of rows affected will be returned.
    * @param statement Unique identifier matching the statement to execute.
@@ -35,6 +35,19 @@ public interface SqlSessionFactory {
   SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level);
   SqlSession openSession(ExecutorType execType, Connection connection);
 
+  /**
+   * Opens an auto-commit session that only reads. Second level cache hits skip the transactional bookkeeping and
+   * misses are stored as soon as they are loaded; inserts, updates and deletes are rejected.
+   * <p>
+   * The default implementation throws, so that factories written before this method keep compiling without
+   * handing out sessions that silently accept writes.
+   * @throws UnsupportedOperationException if this factory cannot open read-only sessions
+   * @since 3.5.0
+   */
+  default SqlSession openReadOnlySession() {
+    throw new UnsupportedOperationException(getClass().getName() + " does not support read-only sessions");
+  }
+
   Configuration getConfiguration();
 
 }
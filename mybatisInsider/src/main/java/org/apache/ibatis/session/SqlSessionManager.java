@@ -21,6 +21,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -151,6 +152,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionFactory.openSession(execType, connection);
   }
 
+  @Override
+  public SqlSession openReadOnlySession() {
+    return sqlSessionFactory.openReadOnlySession();
+  }
+
   @Override
   public Configuration getConfiguration() {
     return sqlSessionFactory.getConfiguration();
@@ -236,6 +242,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.insert(statement, parameter);
   }
 
+  @Override
+  public int insertMultiRow(String statement, Collection<?> parameters) {
+    return sqlSessionProxy.insertMultiRow(statement, parameters);
+  }
+
   @Override
   public int update(String statement) {
     return sqlSessionProxy.update(statement);
@@ -0,0 +1,271 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Execution of a statement whose <code>&lt;foreach chunkSize="..."&gt;</code> iterates more elements than the chunk
+ * size: the statement runs once per chunk and the results are merged in chunk order.
+ * <p>
+ * Chunking applies to map parameters (including the ones built for mapper methods and collection parameters) whose
+ * entry named by the <code>collection</code> attribute is a {@link Collection}. With <code>chunkPadding="true"</code>,
+ * the last chunk is filled up with its last element so that every chunk renders the same SQL and reuses the same
+ * prepared statement, which is only correct for an IN list or a similar set membership test.
+ * <p>
+ * Lists and result handlers are supported without {@link RowBounds}; cursors are not, since a cursor is bound to a
+ * single statement.
+ * <p>
+ * With <code>chunkParallel="true"</code>, the chunks of a select are also run by up to
+ * {@link Configuration#getForeachChunkParallelism()} - 1 workers, each on its own auto-commit connection, so those
+ * chunks do not see uncommitted changes of the session. Workers come from {@link Configuration#getForeachChunkExecutor()},
+ * shared by all sessions; when it is busy, the calling session runs more of the chunks itself.
+ */
+final class ChunkedExecution {
+
+  private final MappedStatement ms;
+  private final List<Object> parameters;
+  private final boolean parallel;
+
+  private ChunkedExecution(MappedStatement ms, List<Object> parameters, boolean parallel) {
+    this.ms = ms;
+    this.parameters = parameters;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns the chunks of the given execution, or null if the statement should run once as usual.
+   */
+  static ChunkedExecution prepare(MappedStatement ms, Object parameter) {
+    if (!(ms.getSqlSource() instanceof DynamicSqlSource) || !(parameter instanceof Map)) {
+      return null;
+    }
+    ForEachSqlNode forEach = ((DynamicSqlSource) ms.getSqlSource()).getChunkedForEach();
+    if (forEach == null) {
+      return null;
+    }
+    Map<?, ?> map = (Map<?, ?>) parameter;
+    String name = forEach.getCollectionExpression();
+    // StrictMap and ParamMap throw on missing keys
+    Object collection = map.containsKey(name) ? map.get(name) : null;
+    int chunkSize = forEach.getChunkSize();
+    if (!(collection instanceof Collection) || ((Collection<?>) collection).size() <= chunkSize) {
+      return null;
+    }
+    List<?> elements = collection instanceof List ? (List<?>) collection : new ArrayList<>((Collection<?>) collection);
+    // a repeated row would be inserted twice
+    boolean pad = forEach.isChunkPadding() && ms.getSqlCommandType() != SqlCommandType.INSERT;
+    List<Object> parameters = new ArrayList<>(elements.size() / chunkSize + 1);
+    for (int from = 0; from < elements.size(); from += chunkSize) {
+      List<Object> chunk = new ArrayList<>(chunkSize);
+      chunk.addAll(elements.subList(from, Math.min(from + chunkSize, elements.size())));
+      while (pad && chunk.size() < chunkSize) {
+        chunk.add(chunk.get(chunk.size() - 1));
+      }
+      parameters.add(replace(map, collection, chunk));
+    }
+    boolean parallel = forEach.isChunkParallel() && ms.getSqlCommandType() == SqlCommandType.SELECT
+        && ms.getConfiguration().getForeachChunkParallelism() > 1 && ms.getConfiguration().getEnvironment() != null;
+    return new ChunkedExecution(ms, parameters, parallel);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> replace(Map<?, ?> map, Object collection, List<Object> chunk) {
+    Map<Object, Object> copy;
+    if (map instanceof ParamMap) {
+      copy = (Map<Object, Object>) (Map<?, ?>) new ParamMap<Object>();
+    } else if (map instanceof DefaultSqlSession.StrictMap) {
+      copy = (Map<Object, Object>) (Map<?, ?>) new DefaultSqlSession.StrictMap<Object>();
+    } else {
+      copy = new HashMap<>();
+    }
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      // the same list may be bound under several names, e.g. "collection" and "list"
+      copy.put(entry.getKey(), entry.getValue() == collection ? chunk : entry.getValue());
+    }
+    return copy;
+  }
+
+  <E> List<E> query(Executor executor, RowBounds rowBounds) throws SQLException {
+    checkRowBounds(rowBounds);
+    List<List<E>> results = parallel ? this.<E>queryParallel(executor) : this.<E>querySequential(executor);
+    int size = 0;
+    for (List<E> result : results) {
+      size += result.size();
+    }
+    List<E> merged = new ArrayList<>(size);
+    for (List<E> result : results) {
+      merged.addAll(result);
+    }
+    return merged;
+  }
+
+  void select(Executor executor, RowBounds rowBounds, ResultHandler<?> handler) throws SQLException {
+    checkRowBounds(rowBounds);
+    for (Object parameter : parameters) {
+      executor.query(ms, parameter, RowBounds.DEFAULT, handler);
+    }
+  }
+
+  int update(Executor executor) throws SQLException {
+    int count = 0;
+    for (Object parameter : parameters) {
+      int updated = executor.update(ms, parameter);
+      count = updated == BatchExecutor.BATCH_UPDATE_RETURN_VALUE ? updated : count + updated;
+    }
+    return count;
+  }
+
+  /**
+   * Throws if the given statement would be chunked, for the operations that cannot run it in chunks.
+   */
+  static void reject(MappedStatement ms, Object parameter, String operation) {
+    if (prepare(ms, parameter) != null) {
+      throw new ExecutorException(operation + " is not supported when the chunked <foreach> of " + ms.getId()
+          + " iterates more elements than its chunkSize.");
+    }
+  }
+
+  private void checkRowBounds(RowBounds rowBounds) {
+    if (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+      // an offset or a limit would apply to every chunk
+      throw new ExecutorException("RowBounds are not supported when the chunked <foreach> of " + ms.getId()
+          + " iterates more elements than its chunkSize.");
+    }
+  }
+
+  private <E> List<List<E>> querySequential(Executor executor) throws SQLException {
+    List<List<E>> results = new ArrayList<>(parameters.size());
+    for (Object parameter : parameters) {
+      results.add(executor.<E>query(ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER));
+    }
+    return results;
+  }
+
+  private <E> List<List<E>> queryParallel(Executor executor) throws SQLException {
+    final Configuration configuration = ms.getConfiguration();
+    final Environment environment = configuration.getEnvironment();
+    final List<List<E>> results = new ArrayList<>(parameters.size());
+    for (int i = 0; i < parameters.size(); i++) {
+      results.add(null);
+    }
+    final AtomicInteger next = new AtomicInteger();
+    int workers = Math.min(configuration.getForeachChunkParallelism(), parameters.size()) - 1;
+    ExecutorService workerPool = configuration.getForeachChunkExecutor();
+    List<Future<Void>> futures = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      Future<Void> future;
+      try {
+        future = workerPool.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+            Executor chunkExecutor = configuration.newExecutor(transaction, ExecutorType.SIMPLE, true);
+            try {
+              queryChunks(chunkExecutor, next, results);
+            } finally {
+              chunkExecutor.close(false);
+            }
+            return null;
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // every shared worker is busy, the calling session runs the remaining chunks
+        break;
+      }
+      futures.add(future);
+    }
+    Throwable failure = null;
+    try {
+      // the calling session takes chunks too
+      queryChunks(executor, next, results);
+    } catch (SQLException | RuntimeException e) {
+      failure = e;
+    }
+    for (Future<Void> future : futures) {
+      // no chunks are left for workers that have not started yet
+      future.cancel(false);
+    }
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (CancellationException e) {
+        // never started
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (failure == null) {
+          failure = new ExecutorException("Interrupted while waiting for the chunks of " + ms.getId() + ".", e);
+        }
+      }
+    }
+    if (failure instanceof SQLException) {
+      throw (SQLException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new ExecutorException("Error querying the chunks of " + ms.getId() + ".  Cause: " + failure, failure);
+    }
+    return results;
+  }
+
+  private <E> void queryChunks(Executor executor, AtomicInteger next, List<List<E>> results) throws SQLException {
+    int chunk;
+    try {
+      while ((chunk = next.getAndIncrement()) < parameters.size()) {
+        // each chunk has its own slot, Future.get publishes the results of the workers
+        results.set(chunk, executor.<E>query(ms, parameters.get(chunk), RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER));
+      }
+    } catch (SQLException | RuntimeException e) {
+      // no one takes the remaining chunks
+      next.set(parameters.size());
+      throw e;
+    }
+  }
+
+}
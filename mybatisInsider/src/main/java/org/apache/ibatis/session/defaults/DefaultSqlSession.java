@@ -25,12 +25,15 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.builder.MultiRowInsertSqlSource;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -52,14 +55,23 @@ public class DefaultSqlSession implements SqlSession {
   private final Executor executor;
 
   private final boolean autoCommit;
+  private final boolean readOnly;
   private boolean dirty;
   private List<Cursor<?>> cursorList;
 
   public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit) {
+    this(configuration, executor, autoCommit, false);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit, boolean readOnly) {
     this.configuration = configuration;
     this.executor = executor;
     this.dirty = false;
     this.autoCommit = autoCommit;
+    this.readOnly = readOnly;
   }
 
   public DefaultSqlSession(Configuration configuration, Executor executor) {
@@ -121,7 +133,9 @@ public class DefaultSqlSession implements SqlSession {
   public <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
     try {
       MappedStatement ms = configuration.getMappedStatement(statement);
-      Cursor<T> cursor = executor.queryCursor(ms, wrapCollection(parameter), rowBounds);
+      Object wrappedParameter = wrapCollection(parameter);
+      ChunkedExecution.reject(ms, wrappedParameter, "A cursor");
+      Cursor<T> cursor = executor.queryCursor(ms, wrappedParameter, rowBounds);
       registerCursor(cursor);
       return cursor;
     } catch (Exception e) {
@@ -145,7 +159,12 @@ public class DefaultSqlSession implements SqlSession {
   public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
     try {
       MappedStatement ms = configuration.getMappedStatement(statement);
-      return executor.query(ms, wrapCollection(parameter), rowBounds, Executor.NO_RESULT_HANDLER);
+      Object wrappedParameter = wrapCollection(parameter);
+      ChunkedExecution chunks = ChunkedExecution.prepare(ms, wrappedParameter);
+      if (chunks != null) {
+        return chunks.query(executor, rowBounds);
+      }
+      return executor.query(ms, wrappedParameter, rowBounds, Executor.NO_RESULT_HANDLER);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -167,7 +186,13 @@ public class DefaultSqlSession implements SqlSession {
   public void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler) {
     try {
       MappedStatement ms = configuration.getMappedStatement(statement);
-      executor.query(ms, wrapCollection(parameter), rowBounds, handler);
+      Object wrappedParameter = wrapCollection(parameter);
+      ChunkedExecution chunks = ChunkedExecution.prepare(ms, wrappedParameter);
+      if (chunks != null) {
+        chunks.select(executor, rowBounds, handler);
+        return;
+      }
+      executor.query(ms, wrappedParameter, rowBounds, handler);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -185,6 +210,38 @@ public class DefaultSqlSession implements SqlSession {
     return update(statement, parameter);
   }
 
+  @Override
+  public int insertMultiRow(String statement, Collection<?> parameters) {
+    try {
+      checkWritable(statement);
+      dirty = true;
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      if (!MultiRowInsertSqlSource.supports(ms)) {
+        int count = 0;
+        for (Object parameter : parameters) {
+          int updated = executor.update(ms, wrapCollection(parameter));
+          count = updated == BatchExecutor.BATCH_UPDATE_RETURN_VALUE ? updated : count + updated;
+        }
+        return count;
+      }
+      List<Object> rows = new ArrayList<>(parameters);
+      int count = 0;
+      int offset = 0;
+      while (offset < rows.size()) {
+        int chunk = configuration.getMultiRowInsertChunkSize(rows.size() - offset);
+        MappedStatement chunkStatement = configuration.getMultiRowInsertStatement(ms, chunk);
+        int updated = executor.update(chunkStatement, wrapCollection(rows.subList(offset, offset + chunk)));
+        count = updated == BatchExecutor.BATCH_UPDATE_RETURN_VALUE ? updated : count + updated;
+        offset += chunk;
+      }
+      return count;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public int update(String statement) {
     return update(statement, null);
@@ -193,9 +250,15 @@ public class DefaultSqlSession implements SqlSession {
   @Override
   public int update(String statement, Object parameter) {
     try {
+      checkWritable(statement);
       dirty = true;
       MappedStatement ms = configuration.getMappedStatement(statement);
-      return executor.update(ms, wrapCollection(parameter));
+      Object wrappedParameter = wrapCollection(parameter);
+      ChunkedExecution chunks = ChunkedExecution.prepare(ms, wrappedParameter);
+      if (chunks != null) {
+        return chunks.update(executor);
+      }
+      return executor.update(ms, wrappedParameter);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
     } finally {
@@ -313,6 +376,12 @@ public class DefaultSqlSession implements SqlSession {
     cursorList.add(cursor);
   }
 
+  private void checkWritable(String statement) {
+    if (readOnly) {
+      throw new ExecutorException("Statement " + statement + " cannot be executed in a read-only session.");
+    }
+  }
+
   private boolean isCommitOrRollbackRequired(boolean force) {
     return (!autoCommit && dirty) || force;
   }
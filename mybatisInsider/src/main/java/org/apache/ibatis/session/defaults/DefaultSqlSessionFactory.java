@@ -44,32 +44,32 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
 
   @Override
   public SqlSession openSession() {
-    return openSessionFromDataSource(configuration.getDefaultExecutorType(), null, false);
+    return openSessionFromDataSource(configuration.getDefaultExecutorType(), null, false, false);
   }
 
   @Override
   public SqlSession openSession(boolean autoCommit) {
-    return openSessionFromDataSource(configuration.getDefaultExecutorType(), null, autoCommit);
+    return openSessionFromDataSource(configuration.getDefaultExecutorType(), null, autoCommit, false);
   }
 
   @Override
   public SqlSession openSession(ExecutorType execType) {
-    return openSessionFromDataSource(execType, null, false);
+    return openSessionFromDataSource(execType, null, false, false);
   }
 
   @Override
   public SqlSession openSession(TransactionIsolationLevel level) {
-    return openSessionFromDataSource(configuration.getDefaultExecutorType(), level, false);
+    return openSessionFromDataSource(configuration.getDefaultExecutorType(), level, false, false);
   }
 
   @Override
   public SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level) {
-    return openSessionFromDataSource(execType, level, false);
+    return openSessionFromDataSource(execType, level, false, false);
   }
 
   @Override
   public SqlSession openSession(ExecutorType execType, boolean autoCommit) {
-    return openSessionFromDataSource(execType, null, autoCommit);
+    return openSessionFromDataSource(execType, null, autoCommit, false);
   }
 
   @Override
@@ -82,19 +82,24 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     return openSessionFromConnection(execType, connection);
   }
 
+  @Override
+  public SqlSession openReadOnlySession() {
+    return openSessionFromDataSource(configuration.getDefaultExecutorType(), null, true, true);
+  }
+
   @Override
   public Configuration getConfiguration() {
     return configuration;
   }
 
-  private SqlSession openSessionFromDataSource(ExecutorType execType, TransactionIsolationLevel level, boolean autoCommit) {
+  private SqlSession openSessionFromDataSource(ExecutorType execType, TransactionIsolationLevel level, boolean autoCommit, boolean readOnly) {
     Transaction tx = null;
     try {
       final Environment environment = configuration.getEnvironment();
       final TransactionFactory transactionFactory = getTransactionFactoryFromEnvironment(environment);
       tx = transactionFactory.newTransaction(environment.getDataSource(), level, autoCommit);
-      final Executor executor = configuration.newExecutor(tx, execType);
-      return new DefaultSqlSession(configuration, executor, autoCommit);
+      final Executor executor = configuration.newExecutor(tx, execType, readOnly);
+      return new DefaultSqlSession(configuration, executor, autoCommit, readOnly);
     } catch (Exception e) {
       closeTransaction(tx); // may have fetched a connection so lets call close()
       throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
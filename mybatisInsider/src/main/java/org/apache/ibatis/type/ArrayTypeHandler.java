@@ -15,24 +15,106 @@
  */
 package org.apache.ibatis.type;
 
+import java.math.BigDecimal;
 import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * Binds {@link Array} values and, through {@link java.sql.Connection#createArrayOf(String, Object[])}, Java arrays and
+ * collections. The SQL type of the elements is derived from the component type or, for collections and
+ * {@code Object[]}, from the first non null element.
+ *
  * @author Clinton Begin
  */
 public class ArrayTypeHandler extends BaseTypeHandler<Object> {
 
+  private static final Map<Class<?>, String> ELEMENT_TYPE_NAMES = new HashMap<>();
+
+  static {
+    ELEMENT_TYPE_NAMES.put(String.class, JdbcType.VARCHAR.name());
+    ELEMENT_TYPE_NAMES.put(Integer.class, JdbcType.INTEGER.name());
+    ELEMENT_TYPE_NAMES.put(int.class, JdbcType.INTEGER.name());
+    ELEMENT_TYPE_NAMES.put(Long.class, JdbcType.BIGINT.name());
+    ELEMENT_TYPE_NAMES.put(long.class, JdbcType.BIGINT.name());
+    ELEMENT_TYPE_NAMES.put(Short.class, JdbcType.SMALLINT.name());
+    ELEMENT_TYPE_NAMES.put(short.class, JdbcType.SMALLINT.name());
+    ELEMENT_TYPE_NAMES.put(Byte.class, JdbcType.TINYINT.name());
+    ELEMENT_TYPE_NAMES.put(byte.class, JdbcType.TINYINT.name());
+    ELEMENT_TYPE_NAMES.put(Boolean.class, JdbcType.BOOLEAN.name());
+    ELEMENT_TYPE_NAMES.put(boolean.class, JdbcType.BOOLEAN.name());
+    ELEMENT_TYPE_NAMES.put(Double.class, JdbcType.DOUBLE.name());
+    ELEMENT_TYPE_NAMES.put(double.class, JdbcType.DOUBLE.name());
+    ELEMENT_TYPE_NAMES.put(Float.class, JdbcType.FLOAT.name());
+    ELEMENT_TYPE_NAMES.put(float.class, JdbcType.FLOAT.name());
+    ELEMENT_TYPE_NAMES.put(BigDecimal.class, JdbcType.NUMERIC.name());
+    ELEMENT_TYPE_NAMES.put(java.sql.Date.class, JdbcType.DATE.name());
+    ELEMENT_TYPE_NAMES.put(LocalDate.class, JdbcType.DATE.name());
+    ELEMENT_TYPE_NAMES.put(Time.class, JdbcType.TIME.name());
+    ELEMENT_TYPE_NAMES.put(LocalTime.class, JdbcType.TIME.name());
+    ELEMENT_TYPE_NAMES.put(java.util.Date.class, JdbcType.TIMESTAMP.name());
+    ELEMENT_TYPE_NAMES.put(Timestamp.class, JdbcType.TIMESTAMP.name());
+    ELEMENT_TYPE_NAMES.put(LocalDateTime.class, JdbcType.TIMESTAMP.name());
+  }
+
   public ArrayTypeHandler() {
     super();
   }
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
-    ps.setArray(i, (Array) parameter);
+    if (parameter instanceof Array) {
+      ps.setArray(i, (Array) parameter);
+      return;
+    }
+    Object[] elements = toObjectArray(parameter);
+    Array array = ps.getConnection().createArrayOf(resolveTypeName(parameter, elements), elements);
+    ps.setArray(i, array);
+    array.free();
+  }
+
+  /**
+   * Returns the SQL type name passed to {@link java.sql.Connection#createArrayOf(String, Object[])}.
+   */
+  protected String resolveTypeName(Object parameter, Object[] elements) {
+    Class<?> elementType = parameter.getClass().isArray() ? parameter.getClass().getComponentType() : Object.class;
+    if (elementType == Object.class) {
+      for (Object element : elements) {
+        if (element != null) {
+          elementType = element.getClass();
+          break;
+        }
+      }
+    }
+    String typeName = ELEMENT_TYPE_NAMES.get(elementType);
+    return typeName == null ? JdbcType.JAVA_OBJECT.name() : typeName;
+  }
+
+  private static Object[] toObjectArray(Object parameter) {
+    if (parameter instanceof Object[]) {
+      return (Object[]) parameter;
+    } else if (parameter instanceof Collection) {
+      return ((Collection<?>) parameter).toArray();
+    } else if (parameter.getClass().isArray()) {
+      int length = java.lang.reflect.Array.getLength(parameter);
+      Object[] elements = new Object[length];
+      for (int i = 0; i < length; i++) {
+        elements[i] = java.lang.reflect.Array.get(parameter, i);
+      }
+      return elements;
+    }
+    throw new TypeException("ArrayTypeHandler cannot bind a parameter of " + parameter.getClass()
+        + ". Expected a java.sql.Array, a Java array or a Collection.");
   }
 
   @Override
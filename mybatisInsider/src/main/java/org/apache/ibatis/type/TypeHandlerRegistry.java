@@ -219,7 +219,8 @@ public final class TypeHandlerRegistry {
 
   @SuppressWarnings("unchecked")
   private <T> TypeHandler<T> getTypeHandler(Type type, JdbcType jdbcType) {
-    if (ParamMap.class.equals(type)) {
+    // mapper parameters may be a subclass of ParamMap
+    if (type instanceof Class && ParamMap.class.isAssignableFrom((Class<?>) type)) {
       return null;
     }
     Map<JdbcType, TypeHandler<?>> jdbcHandlerMap = getJdbcHandlerMap(type);
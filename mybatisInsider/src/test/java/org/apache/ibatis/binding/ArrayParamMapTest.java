@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.junit.Test;
+
+public class ArrayParamMapTest {
+
+  private static ArrayParamMap newParamMap(Object... args) {
+    Map<String, Integer> index = new HashMap<>();
+    index.put("id", 0);
+    index.put("name", 1);
+    index.put("param1", 0);
+    index.put("param2", 1);
+    return new ArrayParamMap(new ArrayParamMap.Shape(new String[] { "id", "name", "param1", "param2" }, index), args);
+  }
+
+  @Test
+  public void shouldReadNamedAndGenericParametersFromArguments() {
+    ArrayParamMap params = newParamMap(1, "Jim");
+    assertEquals(1, params.get("id"));
+    assertEquals("Jim", params.get("param2"));
+    assertTrue(params.containsKey("param1"));
+    assertFalse(params.containsKey("other"));
+    assertEquals(4, params.size());
+  }
+
+  @Test(expected = BindingException.class)
+  public void shouldFailOnUnknownParameter() {
+    newParamMap(1, "Jim").get("other");
+  }
+
+  @Test
+  public void shouldKeepExtraKeysAlongsideArguments() {
+    ArrayParamMap params = newParamMap(1, "Jim");
+    params.put("generatedId", 100);
+    params.put("name", "Jane");
+    assertEquals(100, params.get("generatedId"));
+    assertEquals("Jane", params.get("name"));
+    assertEquals(5, params.size());
+  }
+
+  @Test
+  public void shouldBehaveAsPlainMapWhenIterated() {
+    ArrayParamMap params = newParamMap(1, "Jim");
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("id", 1);
+    expected.put("name", "Jim");
+    expected.put("param1", 1);
+    expected.put("param2", "Jim");
+    assertEquals(expected, params);
+    assertEquals(expected.keySet(), params.keySet());
+    params.remove("param2");
+    assertEquals(3, params.size());
+    assertEquals("Jim", params.get("name"));
+  }
+
+  @Test
+  public void shouldBeAccessibleThroughMetaObject() {
+    MetaObject metaObject = SystemMetaObject.forObject(newParamMap(1, "Jim"));
+    assertEquals("Jim", metaObject.getValue("name"));
+    metaObject.setValue("id", 2);
+    assertEquals(2, metaObject.getValue("param1"));
+  }
+
+  @Test
+  public void shouldSerializeAsParamMap() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(newParamMap(1, "Jim"));
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertEquals(ParamMap.class, copy.getClass());
+      assertEquals("Jim", ((Map<?, ?>) copy).get("param2"));
+    }
+  }
+
+}
@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperProxy.MapperMethodInvoker;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+public class MapperProxyTest {
+
+  @Test
+  public void shouldResolveDefaultMethodHandleOnce() throws Exception {
+    MapperProxyFactory<DefaultMethodMapper> factory = new MapperProxyFactory<>(DefaultMethodMapper.class);
+    DefaultMethodMapper mapper = factory.newInstance((SqlSession) null);
+    Method greet = DefaultMethodMapper.class.getMethod("greet", String.class);
+
+    assertEquals("Hello, MyBatis", mapper.greet("MyBatis"));
+    MapperMethodInvoker invoker = factory.getMethodCache().get(greet);
+    assertEquals("Hello, again", mapper.greet("again"));
+    assertEquals(1, factory.getMethodCache().size());
+    assertSame(invoker, factory.getMethodCache().get(greet));
+    // a second proxy shares the resolved invoker
+    assertEquals("Hello, twice", factory.newInstance((SqlSession) null).greet("twice"));
+    assertSame(invoker, factory.getMethodCache().get(greet));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldPropagateExceptionFromDefaultMethod() {
+    MapperProxyFactory<DefaultMethodMapper> factory = new MapperProxyFactory<>(DefaultMethodMapper.class);
+    factory.newInstance((SqlSession) null).fail();
+  }
+
+  @Test
+  public void shouldNotCacheObjectMethods() {
+    MapperProxyFactory<DefaultMethodMapper> factory = new MapperProxyFactory<>(DefaultMethodMapper.class);
+    DefaultMethodMapper mapper = factory.newInstance((SqlSession) null);
+    assertEquals(mapper.hashCode(), mapper.hashCode());
+    assertEquals(0, factory.getMethodCache().size());
+  }
+
+  @Test
+  public void shouldRouteEachMethodByCommandAndReturnType() {
+    List<Object> calls = new ArrayList<>();
+    CrudMapper mapper = new MapperProxyFactory<>(CrudMapper.class).newInstance(sqlSession(calls, null));
+    mapper.insert("a");
+    assertEquals(1, mapper.update("a", 2));
+    assertTrue(mapper.delete());
+    assertEquals(Arrays.asList("a", "b"), Arrays.asList(mapper.selectArray(7)));
+    assertEquals(Optional.empty(), mapper.selectOptional(7));
+
+    assertEquals(Arrays.<Object>asList("insert", "update", "delete", "selectList", "selectOne"),
+        Arrays.asList(calls.get(0), calls.get(2), calls.get(4), calls.get(6), calls.get(8)));
+    // a single unnamed parameter is passed as is, named ones in a map
+    assertEquals("a", calls.get(1));
+    Map<?, ?> params = (Map<?, ?>) calls.get(3);
+    assertEquals("a", params.get("name"));
+    assertEquals(2, params.get("param2"));
+    assertNull(calls.get(5));
+    assertEquals(7, calls.get(7));
+  }
+
+  @Test
+  public void shouldRejectNullForPrimitiveReturnType() {
+    CrudMapper mapper = new MapperProxyFactory<>(CrudMapper.class).newInstance(sqlSession(new ArrayList<>(), null));
+    try {
+      mapper.selectCount();
+      fail();
+    } catch (BindingException e) {
+      assertTrue(e.getMessage().contains("primitive return type"));
+    }
+    assertEquals(3L, new MapperProxyFactory<>(CrudMapper.class).newInstance(sqlSession(new ArrayList<>(), 3L))
+        .selectCount());
+  }
+
+  private static SqlSession sqlSession(List<Object> calls, Object selectOneResult) {
+    Configuration configuration = new Configuration();
+    for (Method method : CrudMapper.class.getMethods()) {
+      String name = method.getName();
+      SqlCommandType type = name.startsWith("select") ? SqlCommandType.SELECT : SqlCommandType.valueOf(name.toUpperCase());
+      String id = CrudMapper.class.getName() + "." + name;
+      configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+          new StaticSqlSource(configuration, "sql"), type).build());
+    }
+    return (SqlSession) Proxy.newProxyInstance(MapperProxyTest.class.getClassLoader(), new Class<?>[] { SqlSession.class },
+        (proxy, method, args) -> {
+          if ("getConfiguration".equals(method.getName())) {
+            return configuration;
+          }
+          calls.add(method.getName());
+          calls.add(args.length > 1 ? args[1] : null);
+          switch (method.getName()) {
+            case "selectList":
+              return Arrays.asList("a", "b");
+            case "selectOne":
+              return selectOneResult;
+            default:
+              return 1;
+          }
+        });
+  }
+
+  public interface CrudMapper {
+    void insert(String name);
+
+    int update(@Param("name") String name, @Param("size") int size);
+
+    boolean delete();
+
+    String[] selectArray(int id);
+
+    Optional<String> selectOptional(int id);
+
+    long selectCount();
+  }
+
+  public interface DefaultMethodMapper {
+    default String greet(String name) {
+      return "Hello, " + name;
+    }
+
+    default void fail() {
+      throw new IllegalStateException();
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.Test;
+
+public class MultiRowInsertSqlSourceTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void shouldRepeatValuesTupleForEveryRow() {
+    MappedStatement ms = insert("insert into author (id, name) values (?, lower(?)) on conflict do nothing", "id", "name");
+    assertTrue(MultiRowInsertSqlSource.supports(ms));
+
+    MappedStatement multiRow = MultiRowInsertSqlSource.buildStatement(ms, 3);
+    assertEquals("author.insert!multiRow3", multiRow.getId());
+    assertSame(ms.getKeyGenerator(), multiRow.getKeyGenerator());
+    assertArrayEquals(new String[] {"id"}, multiRow.getKeyProperties());
+
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("list", Arrays.asList(row(1, "a"), row(2, "b"), row(3, "c")));
+    BoundSql boundSql = multiRow.getBoundSql(parameter);
+    assertEquals("insert into author (id, name) values (?, lower(?)), (?, lower(?)), (?, lower(?)) on conflict do nothing", boundSql.getSql());
+
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    assertEquals(6, mappings.size());
+    assertEquals("list[2].name", mappings.get(5).getProperty());
+    MetaObject metaObject = configuration.newMetaObject(parameter);
+    assertEquals(2, metaObject.getValue(mappings.get(2).getProperty()));
+    assertEquals("c", metaObject.getValue(mappings.get(5).getProperty()));
+  }
+
+  @Test
+  public void shouldRejectStatementsThatCannotBeRepeated() {
+    assertFalse(MultiRowInsertSqlSource.supports(insert("insert into author select ? from dual", "id")));
+    assertFalse(MultiRowInsertSqlSource.supports(insert("insert into author (id) values (?) returning ?", "id", "name")));
+    assertFalse(MultiRowInsertSqlSource.supports(insert("insert into author (id, name) values (?, '?')", "id", "name")));
+    MappedStatement update = new MappedStatement.Builder(configuration, "author.update",
+        new StaticSqlSource(configuration, "update author set name = 'x' where id in (select id from t values (1))"), SqlCommandType.UPDATE).build();
+    assertFalse(MultiRowInsertSqlSource.supports(update));
+  }
+
+  @Test
+  public void shouldSplitRowsIntoConfiguredChunks() {
+    configuration.setMultiRowInsertChunkSizes(new int[] {10, 4, 4});
+    assertArrayEquals(new int[] {10, 4, 1}, configuration.getMultiRowInsertChunkSizes());
+    assertEquals(10, configuration.getMultiRowInsertChunkSize(27));
+    assertEquals(4, configuration.getMultiRowInsertChunkSize(7));
+    assertEquals(1, configuration.getMultiRowInsertChunkSize(3));
+
+    MappedStatement ms = insert("insert into author (id) values (?)", "id");
+    assertSame(configuration.getMultiRowInsertStatement(ms, 4), configuration.getMultiRowInsertStatement(ms, 4));
+  }
+
+  private MappedStatement insert(String sql, String... properties) {
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    List<ParameterMapping> mappings = new ArrayList<>();
+    for (String property : properties) {
+      mappings.add(new ParameterMapping.Builder(configuration, property, registry.getUnknownTypeHandler()).build());
+    }
+    return new MappedStatement.Builder(configuration, "author.insert", new StaticSqlSource(configuration, sql, mappings), SqlCommandType.INSERT)
+        .keyGenerator(Jdbc3KeyGenerator.INSTANCE)
+        .keyProperty("id")
+        .build();
+  }
+
+  private Map<String, Object> row(int id, String name) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", id);
+    row.put("name", name);
+    return row;
+  }
+
+}
@@ -36,11 +36,14 @@ import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.TrimSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.JdbcType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -364,6 +367,45 @@ public class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  public void shouldSeparatePrefixOfTrimNestedInWhere() throws Exception {
+    final String expected = "SELECT * FROM BLOG WHERE  blog_id = ? AND ( author_id = ? )";
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("blogId", 1);
+    param.put("authorId", 2);
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new TrimSqlNode(new Configuration(), mixedContents(new StaticTextSqlNode("blog_id = #{blogId}")), "AND", null,
+                null, null),
+            new StaticTextSqlNode(" "),
+            new TrimSqlNode(new Configuration(), mixedContents(new TextSqlNode("author_id = #{authorId}")), "AND (",
+                null, ")", null))));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals(expected, boundSql.getSql());
+    assertEquals(2, boundSql.getParameterMappings().size());
+  }
+
+  @Test
+  public void shouldCarryPlaceholdersOfStaticTextIntoBoundSql() throws Exception {
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("name", "mybatis");
+    param.put("ids", Arrays.asList(1, 2));
+    DynamicSqlSource source = createDynamicSqlSource(new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new StaticTextSqlNode("and name = #{name,jdbcType=VARCHAR} and id in"),
+            new ForEachSqlNode(new Configuration(), mixedContents(
+                new StaticTextSqlNode("#{id}"), new IfSqlNode(new StaticTextSqlNode("+ #{id}"), "id > 1")),
+                "ids", null, "id", "(", ")", ","))));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE  name = ? and id in(?,?+ ?)", boundSql.getSql());
+    assertEquals(4, boundSql.getParameterMappings().size());
+    assertEquals("name", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals(JdbcType.VARCHAR, boundSql.getParameterMappings().get(0).getJdbcType());
+    assertEquals("__frch_id_0", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals("__frch_id_1", boundSql.getParameterMappings().get(2).getProperty());
+    assertEquals("__frch_id_1", boundSql.getParameterMappings().get(3).getProperty());
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
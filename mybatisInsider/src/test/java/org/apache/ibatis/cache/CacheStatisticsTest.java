@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class CacheStatisticsTest {
+
+  @Test
+  public void shouldReportPerStatementAndPerCache() {
+    CacheStatistics statistics = new CacheStatistics();
+    Cache cache = new CacheBuilder("ns").build();
+    statistics.register(cache);
+    cache.putObject("a", "1");
+    statistics.recordMiss(cache, "ns.select", 4000000L);
+    statistics.recordHit(cache, "ns.select");
+    statistics.recordHit(cache, "ns.select");
+    statistics.recordMiss(cache, "ns.other", 1000000L);
+
+    CacheStatisticsSnapshot snapshot = statistics.snapshot().get("ns");
+    assertEquals(1, snapshot.getEntryCount());
+    assertEquals(2, snapshot.getHits());
+    assertEquals(2, snapshot.getMisses());
+    assertEquals(8000000L, snapshot.getSavedNanos());
+    CacheStatisticsSnapshot.StatementStatistics select = snapshot.getStatements().get("ns.select");
+    assertEquals(2, select.getHits());
+    assertEquals(1, select.getMisses());
+    assertEquals(4000000L, select.getLoadNanos());
+    assertEquals(0, snapshot.getStatements().get("ns.other").getSavedNanos());
+  }
+
+  @Test
+  public void shouldCountEvictions() {
+    CacheStatistics statistics = new CacheStatistics();
+    Properties properties = new Properties();
+    properties.setProperty("size", "2");
+    Cache lru = new CacheBuilder("lru").properties(properties).evictionListener(statistics.evictionListener("lru")).build();
+    Cache fifo = new CacheBuilder("fifo").implementation(org.apache.ibatis.cache.impl.PerpetualCache.class)
+        .addDecorator(FifoCache.class).properties(properties).evictionListener(statistics.evictionListener("fifo")).build();
+    for (int i = 0; i < 5; i++) {
+      lru.putObject(i, i);
+      fifo.putObject(i, i);
+    }
+    lru.removeObject(4);
+    assertEquals(3, statistics.snapshot().get("lru").getEvictions());
+    assertEquals(3, statistics.snapshot().get("fifo").getEvictions());
+  }
+
+}
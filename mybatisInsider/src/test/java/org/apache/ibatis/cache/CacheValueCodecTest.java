@@ -0,0 +1,171 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.codec.DeepCopyCodec;
+import org.apache.ibatis.cache.codec.SerializationCodec;
+import org.apache.ibatis.cache.codec.SnapshotCodec;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class CacheValueCodecTest {
+
+  @Test
+  public void deepCopyShouldReturnIndependentGraphs() {
+    Blog blog = new Blog(1, "title");
+    blog.price = new BigDecimal("9.99");
+    blog.created = new Date(1000L);
+    blog.tags.put("a", new String[] {"x", "y"});
+    blog.posts.add(new Post(10, blog));
+    blog.posts.add(new Post(11, blog));
+    blog.cached = "not copied";
+
+    Cache cache = new SerializedCache(new PerpetualCache("blog"), new DeepCopyCodec());
+    cache.putObject("k", new ArrayList<>(Collections.singletonList(blog)));
+    blog.title = "changed after put";
+
+    @SuppressWarnings("unchecked")
+    List<Blog> first = (List<Blog>) cache.getObject("k");
+    @SuppressWarnings("unchecked")
+    List<Blog> second = (List<Blog>) cache.getObject("k");
+    Blog copy = first.get(0);
+    assertNotSame(copy, second.get(0));
+    assertEquals("title", copy.title);
+    assertEquals(1, copy.id);
+    assertSame(blog.price, copy.price);
+    assertEquals(blog.created, copy.created);
+    assertNotSame(blog.created, copy.created);
+    assertArrayEquals(new String[] {"x", "y"}, copy.tags.get("a"));
+    assertEquals(2, copy.posts.size());
+    assertSame("cycles must point to the copy", copy, copy.posts.get(1).blog);
+    assertNull("transient fields are not copied", copy.cached);
+
+    copy.posts.clear();
+    assertEquals(2, second.get(0).posts.size());
+  }
+
+  @Test
+  public void deepCopyShouldFallBackToSerialization() {
+    DeepCopyCodec codec = new DeepCopyCodec();
+    NoDefaultConstructor value = new NoDefaultConstructor("v");
+    NoDefaultConstructor copy = (NoDefaultConstructor) codec.decode(codec.encode(value));
+    assertNotSame(value, copy);
+    assertEquals("v", copy.value);
+    List<String> fixed = Arrays.asList("a", "b");
+    assertEquals(fixed, codec.copy(fixed));
+  }
+
+  @Test
+  public void serializationCodecShouldRoundTrip() {
+    SerializationCodec codec = new SerializationCodec();
+    Object stored = codec.encode(new Blog(2, "t"));
+    assertTrue(stored instanceof byte[]);
+    assertEquals("t", ((Blog) codec.decode(stored)).title);
+  }
+
+  @Test
+  public void snapshotCodecShouldShareValuesButProtectCollections() {
+    SnapshotCodec codec = new SnapshotCodec();
+    Blog blog = new Blog(3, "t");
+    List<Blog> list = new ArrayList<>(Collections.singletonList(blog));
+    @SuppressWarnings("unchecked")
+    List<Blog> stored = (List<Blog>) codec.decode(codec.encode(list));
+    assertSame(blog, stored.get(0));
+    try {
+      stored.add(blog);
+      fail("Cached lists must be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void snapshotCodecShouldNotSeeChangesToTheStoredCollection() {
+    Cache cache = new SerializedCache(new PerpetualCache("snapshot"), new SnapshotCodec());
+    Blog blog = new Blog(4, "t");
+    List<Blog> list = new ArrayList<>(Collections.singletonList(blog));
+    cache.putObject("key", list);
+    list.clear();
+    assertEquals(Collections.singletonList(blog), cache.getObject("key"));
+
+    Map<String, Blog> map = new HashMap<>();
+    map.put("a", blog);
+    cache.putObject("map", map);
+    map.put("b", blog);
+    assertEquals(Collections.singletonMap("a", blog), cache.getObject("map"));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldStillRejectNonSerializableValues() {
+    new SerializedCache(new PerpetualCache("x"), new DeepCopyCodec()).putObject("k", new Object());
+  }
+
+  static class Blog implements Serializable {
+    private static final long serialVersionUID = 1L;
+    int id;
+    String title;
+    BigDecimal price;
+    Date created;
+    Map<String, String[]> tags = new HashMap<>();
+    List<Post> posts = new ArrayList<>();
+    transient String cached;
+
+    Blog() {
+    }
+
+    Blog(int id, String title) {
+      this.id = id;
+      this.title = title;
+    }
+  }
+
+  static class Post implements Serializable {
+    private static final long serialVersionUID = 1L;
+    int id;
+    Blog blog;
+
+    Post() {
+    }
+
+    Post(int id, Blog blog) {
+      this.id = id;
+      this.blog = blog;
+    }
+  }
+
+  static class NoDefaultConstructor implements Serializable {
+    private static final long serialVersionUID = 1L;
+    final String value;
+
+    NoDefaultConstructor(String value) {
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class CoalescingBlockingCacheTest {
+
+  @Test
+  public void shouldShareOneLoadBetweenConcurrentMisses() throws Exception {
+    BlockingCache cache = coalescingCache(0);
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<Object>> waiters = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        waiters.add(executor.submit(() -> cache.getObject("key")));
+      }
+      awaitCoalesced(cache, 3);
+      cache.putObject("key", "value");
+      for (Future<Object> waiter : waiters) {
+        assertEquals("value", waiter.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(3, cache.getCoalescedLoads());
+  }
+
+  @Test
+  public void shouldGiveEveryWaiterItsOwnCopy() throws Exception {
+    BlockingCache cache = new BlockingCache(new SerializedCache(new PerpetualCache("default")));
+    cache.setCoalescing(true);
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<Object>> waiters = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        waiters.add(executor.submit(() -> cache.getObject("key")));
+      }
+      awaitCoalesced(cache, 2);
+      List<String> loaded = new ArrayList<>(Arrays.asList("a", "b"));
+      cache.putObject("key", loaded);
+      Object first = waiters.get(0).get(5, TimeUnit.SECONDS);
+      Object second = waiters.get(1).get(5, TimeUnit.SECONDS);
+      assertEquals(loaded, first);
+      assertEquals(loaded, second);
+      assertNotSame(loaded, first);
+      assertNotSame(loaded, second);
+      assertNotSame(first, second);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldHandOverTheLoadWhenTheLoaderRollsBack() throws Exception {
+    BlockingCache cache = coalescingCache(0);
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+      awaitCoalesced(cache, 1);
+      cache.removeObject("key");
+      assertNull(waiter.get(5, TimeUnit.SECONDS));
+      assertNull("the waiter became the loader", executor.submit(() -> {
+        cache.putObject("key", "value");
+        return cache.getObject("other");
+      }).get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldBeReentrantForTheLoadingThread() {
+    BlockingCache cache = coalescingCache(0);
+    assertNull(cache.getObject("key"));
+    assertNull(cache.getObject("key"));
+    assertEquals(0, cache.getCoalescedLoads());
+  }
+
+  @Test
+  public void shouldTimeOutWaitingForALoad() throws Exception {
+    BlockingCache cache = coalescingCache(50);
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> cache.getObject("key")).get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (java.util.concurrent.ExecutionException e) {
+      assertTrue(e.getCause() instanceof CacheException);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private BlockingCache coalescingCache(long timeout) {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setCoalescing(true);
+    cache.setTimeout(timeout);
+    return cache;
+  }
+
+  private void awaitCoalesced(BlockingCache cache, long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (cache.getCoalescedLoads() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, cache.getCoalescedLoads());
+  }
+
+}
@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+
+import org.apache.ibatis.cache.decorators.InvalidationBusCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class InvalidationBusCacheTest {
+
+  @Test
+  public void shouldApplyCommittedRemovalsOnOtherNodes() {
+    Cache node1 = build("shouldApplyCommittedRemovalsOnOtherNodes", false);
+    Cache node2 = build("shouldApplyCommittedRemovalsOnOtherNodes", false);
+    node1.putObject("a", "1");
+    node1.putObject("b", "2");
+    node2.putObject("a", "1");
+    node2.putObject("b", "2");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    tcm.invalidate(node1, "a");
+    assertEquals("1", node2.getObject("a"));
+    tcm.commit();
+
+    assertNull(node1.getObject("a"));
+    assertNull(node2.getObject("a"));
+    assertEquals("2", node2.getObject("b"));
+
+    tcm.clear(node2);
+    tcm.commit();
+    assertEquals(0, node1.getSize());
+  }
+
+  @Test
+  public void shouldIgnoreOtherNamespacesAndGroups() {
+    Cache node1 = build("shouldIgnoreOtherNamespacesAndGroups", false);
+    Cache otherGroup = new CacheBuilder("ns").invalidationTransport(new LoopbackInvalidationTransport("elsewhere")).build();
+    Cache otherNamespace = new CacheBuilder("other")
+        .invalidationTransport(new LoopbackInvalidationTransport("shouldIgnoreOtherNamespacesAndGroups")).build();
+    otherGroup.putObject("a", "1");
+    otherNamespace.putObject("a", "1");
+    node1.clear();
+    assertEquals("1", otherGroup.getObject("a"));
+    assertEquals("1", otherNamespace.getObject("a"));
+  }
+
+  @Test
+  public void shouldPropagateClearsThroughBlockingAndCustomCaches() {
+    Cache blocking = build("shouldPropagateClearsThroughBlockingAndCustomCaches", true);
+    Cache offHeap = new CacheBuilder("ns").implementation(OffHeapCache.class)
+        .invalidationTransport(new LoopbackInvalidationTransport("shouldPropagateClearsThroughBlockingAndCustomCaches")).build();
+    offHeap.putObject("a", "1");
+    blocking.clear();
+    assertNull(offHeap.getObject("a"));
+  }
+
+  @Test
+  public void shouldKeepTransportsWithoutGroupApart() {
+    Cache node1 = new CacheBuilder("ns").invalidationTransport(new LoopbackInvalidationTransport()).build();
+    Cache node2 = new CacheBuilder("ns").invalidationTransport(new LoopbackInvalidationTransport()).build();
+    node2.putObject("a", "1");
+    node1.clear();
+    assertEquals("1", node2.getObject("a"));
+  }
+
+  @Test
+  public void shouldStopApplyingInvalidationsAfterUnsubscribe() {
+    Cache node1 = build("shouldStopApplyingInvalidationsAfterUnsubscribe", false);
+    Cache node2 = build("shouldStopApplyingInvalidationsAfterUnsubscribe", false);
+    node2.putObject("a", "1");
+    ((InvalidationBusCache) node2).unsubscribe();
+    node1.clear();
+    assertEquals("1", node2.getObject("a"));
+  }
+
+  @Test
+  public void shouldNotHoldOnToUnreferencedListeners() throws Exception {
+    LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport("shouldNotHoldOnToUnreferencedListeners");
+    CacheInvalidationTransport.Listener listener = new CacheInvalidationTransport.Listener() {
+      @Override
+      public void onInvalidation(String origin, String cacheId, Object key) {
+        fail("Unreferenced listener was notified");
+      }
+    };
+    WeakReference<CacheInvalidationTransport.Listener> reference = new WeakReference<>(listener);
+    transport.subscribe(listener);
+    listener = null;
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+    transport.publish("origin", "ns", null);
+  }
+
+  private Cache build(String group, boolean blocking) {
+    return new CacheBuilder("ns").blocking(blocking).invalidationTransport(new LoopbackInvalidationTransport(group)).build();
+  }
+
+}
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Properties;
+
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -57,4 +60,20 @@ public class LruCacheTest {
     assertNull(cache.getObject(4));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldWeighEntriesWithTheWeigherPassedToTheBuilder() {
+    Properties properties = new Properties();
+    properties.setProperty("maxBytes", "100");
+    Cache cache = new CacheBuilder("default").properties(properties).weigher(new Weigher() {
+      @Override
+      public long weigh(Object value) {
+        return 60;
+      }
+    }).build();
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+  }
+
+}
@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesOfStoredValues() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.initialize();
+    List<String> rows = new ArrayList<>(Arrays.asList("a", "b", "c"));
+    cache.putObject(1, rows);
+    Object cached = cache.getObject(1);
+    assertEquals(rows, cached);
+    assertNotSame(rows, cached);
+    assertNotSame(cached, cache.getObject(1));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldEvictOldestSlabWhenFull() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(4096);
+    cache.setSlabSize(1024);
+    cache.initialize();
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+      assertEquals(i, cache.getObject(i));
+    }
+    assertTrue(cache.getSize() < 1000);
+    assertNull(cache.getObject(0));
+    assertEquals(999, cache.getObject(999));
+  }
+
+  @Test
+  public void shouldRemoveAndClear() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, "zero");
+    cache.putObject(1, "one");
+    cache.putObject(1, "uno");
+    assertEquals("uno", cache.getObject(1));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+    cache.putObject(2, null);
+    assertNull(cache.getObject(2));
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldSkipValuesLargerThanASlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(1024);
+    cache.setSlabSize(256);
+    cache.initialize();
+    cache.putObject(0, new byte[512]);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectNonSerializableValues() {
+    new OffHeapCache("default").putObject(0, new Object());
+  }
+
+}
@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.codec.DeepCopyCodec;
+import org.apache.ibatis.cache.decorators.RefreshingCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class RefreshingCacheTest {
+
+  @Test
+  public void shouldServeFreshEntriesWithoutRefresh() {
+    RefreshingCache cache = build(60000L);
+    cache.putObject("key", new ArrayList<>(Arrays.asList("a")));
+    assertEquals(Arrays.asList("a"), cache.getObject("key"));
+    assertEquals(-1L, cache.beginRefresh("key"));
+  }
+
+  @Test
+  public void shouldServeStaleEntryWhileOneReaderRefreshes() throws Exception {
+    RefreshingCache cache = build(0L);
+    cache.putObject("key", "old");
+    assertEquals("old", cache.getObject("key"));
+    long token = cache.beginRefresh("key");
+    assertTrue(token >= 0);
+    assertEquals(-1L, cache.beginRefresh("key"));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertEquals(-1L, (long) executor.submit(() -> {
+        assertEquals("old", cache.getObject("key"));
+        return cache.beginRefresh("key");
+      }).get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    cache.completeRefresh("key", "new", token);
+    assertEquals("new", cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldDropRefreshWhenInvalidatedMeanwhile() {
+    RefreshingCache cache = build(0L);
+    cache.putObject("key", "old");
+    cache.getObject("key");
+    long token = cache.beginRefresh("key");
+    cache.clear();
+    cache.completeRefresh("key", "stale", token);
+    assertNull(cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldRetryAfterCancelledRefresh() {
+    RefreshingCache cache = build(0L);
+    cache.putObject("key", "old");
+    cache.getObject("key");
+    cache.cancelRefresh("key");
+    assertTrue(cache.beginRefresh("key") >= 0);
+    cache.cancelRefresh("key");
+    cache.getObject("key");
+    assertTrue(cache.beginRefresh("key") >= 0);
+  }
+
+  @Test
+  public void shouldCopyEntriesOfReadWriteCacheFieldByField() {
+    // not serializable: a serialization fallback for the entry would fail
+    Plain value = new Plain();
+    value.name = "a";
+    Cache cache = new CacheBuilder("default").refreshInterval(60000L).readWrite(true)
+        .valueCodec(new DeepCopyCodec()).build();
+    cache.putObject("key", value);
+    Plain copy = (Plain) cache.getObject("key");
+    assertNotSame(value, copy);
+    assertEquals("a", copy.name);
+  }
+
+  @Test
+  public void shouldRejectRefreshesBeyondTheConfiguredQueue() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setCacheRefreshThreads(1);
+    configuration.setCacheRefreshQueueSize(1);
+    ExecutorService executor = configuration.getCacheRefreshExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable blocked = () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    executor.execute(blocked);
+    executor.execute(blocked);
+    try {
+      executor.execute(blocked);
+      fail("Expected the full refresh queue to reject the task");
+    } catch (RejectedExecutionException e) {
+      // the stale entry is refreshed by a later hit
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private RefreshingCache build(long refreshInterval) {
+    Cache cache = new CacheBuilder("default").refreshInterval(refreshInterval).readWrite(true).build();
+    assertTrue(cache instanceof RefreshingCache);
+    return (RefreshingCache) cache;
+  }
+
+  public static class Plain {
+    private String name;
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class SamplingWeigherTest {
+
+  @Test
+  public void shouldWeighListsInProportionToTheirRows() {
+    SamplingWeigher weigher = new SamplingWeigher();
+    long ten = weigher.weigh(rows(10));
+    long thousand = weigher.weigh(rows(1000));
+    assertTrue(ten > 0);
+    assertTrue(thousand > 50 * ten);
+    assertTrue(thousand < 150 * ten);
+  }
+
+  @Test
+  public void shouldCountNestedValuesAndSharedInstancesOnce() {
+    SamplingWeigher weigher = new SamplingWeigher();
+    Row row = new Row(1, "name", null);
+    long single = weigher.weigh(row);
+    Row withChild = new Row(2, "name", row);
+    assertTrue(weigher.weigh(withChild) > single);
+    List<Row> shared = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      shared.add(row);
+    }
+    assertTrue(weigher.weigh(shared) < weigher.weigh(rows(10)));
+    assertEquals(0, weigher.weigh(null));
+  }
+
+  @Test
+  public void shouldWeighMapsAndArrays() {
+    SamplingWeigher weigher = new SamplingWeigher();
+    Map<String, Object> map = new HashMap<>();
+    map.put("id", 1);
+    map.put("amount", new BigDecimal("123.45"));
+    assertTrue(weigher.weigh(map) > weigher.weigh(new HashMap<>()));
+    assertEquals(1016, weigher.weigh(new byte[1000]));
+  }
+
+  @Test
+  public void shouldBoundLruCacheByBytes() {
+    LruCache cache = new LruCache(new PerpetualCache("default"));
+    SamplingWeigher weigher = new SamplingWeigher();
+    cache.setMaxBytes(weigher.weigh(rows(100)) * 3);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, rows(100));
+    }
+    assertTrue(cache.getSize() <= 3);
+    assertNotNull(cache.getObject(9));
+    assertNull(cache.getObject(0));
+  }
+
+  private List<Row> rows(int count) {
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(new Row(i, "row number " + i, null));
+    }
+    return rows;
+  }
+
+  static class Row {
+    private final int id;
+    private final String name;
+    private final Date created = new Date();
+    private final Row parent;
+
+    Row(int id, String name, Row parent) {
+      this.id = id;
+      this.name = name;
+      this.parent = parent;
+    }
+  }
+
+}
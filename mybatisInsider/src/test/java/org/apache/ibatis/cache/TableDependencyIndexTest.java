@@ -0,0 +1,200 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class TableDependencyIndexTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void shouldExtractReadTables() {
+    assertEquals(tables("author", "blog", "post"), SqlTableExtractor.referencedTables(
+        "select * from Author a, \"BLOG\" b left outer join blog_db.post p on p.blog_id = b.id where a.id = b.author_id"));
+    assertEquals(tables("author", "comment"), SqlTableExtractor.referencedTables(
+        "select id from author where id in (select author_id from comment where text <> 'from nowhere') for update"));
+    assertTrue(SqlTableExtractor.referencedTables("{call refresh_stats()}").isEmpty());
+  }
+
+  @Test
+  public void shouldExtractWrittenTables() {
+    assertEquals(tables("author"), SqlTableExtractor.modifiedTables("insert into author (id) values (?) on duplicate key update id = id"));
+    assertEquals(tables("blog"), SqlTableExtractor.modifiedTables("UPDATE `blog` SET title = ? WHERE id = ?"));
+    assertEquals(tables("post"), SqlTableExtractor.modifiedTables("delete from post -- delete from author\n where id = ?"));
+    assertEquals(tables("tag"), SqlTableExtractor.modifiedTables("truncate table tag"));
+    assertTrue(SqlTableExtractor.modifiedTables("select * from author").isEmpty());
+  }
+
+  @Test
+  public void shouldInvalidateOnlyDependentEntriesAcrossNamespaces() {
+    TableDependencyIndex index = new TableDependencyIndex();
+    Cache authors = new PerpetualCache("authors");
+    Cache blogs = new PerpetualCache("blogs");
+    MappedStatement selectAuthor = statement("selectAuthor", "select * from author where id = ?", SqlCommandType.SELECT, null);
+    MappedStatement selectBlog = statement("selectBlog", "select * from blog join author on blog.author_id = author.id", SqlCommandType.SELECT, null);
+    MappedStatement selectPost = statement("selectPost", "select * from post", SqlCommandType.SELECT, null);
+    MappedStatement updateAuthor = statement("updateAuthor", "update author set name = ?", SqlCommandType.UPDATE, null);
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    put(index, tcm, authors, selectAuthor, "a1");
+    put(index, tcm, blogs, selectBlog, "b1");
+    put(index, tcm, blogs, selectPost, "p1");
+    tcm.commit();
+
+    Set<String> written = index.writeTables(updateAuthor, updateAuthor.getBoundSql(null));
+    assertEquals(tables("author"), written);
+    index.invalidate(written, tcm);
+    assertNull(tcm.getObject(blogs, key("b1")));
+    assertNotNull(blogs.getObject(key("b1")));
+
+    tcm.commit();
+    assertNull(authors.getObject(key("a1")));
+    assertNull(blogs.getObject(key("b1")));
+    assertEquals("p1", blogs.getObject(key("p1")));
+  }
+
+  @Test
+  public void shouldHonorDeclaredTablesAndUnknownReads() {
+    TableDependencyIndex index = new TableDependencyIndex();
+    Cache cache = new PerpetualCache("ns");
+    MappedStatement proc = statement("proc", "{call author_summary()}", SqlCommandType.SELECT, null);
+    MappedStatement declared = statement("declared", "{call post_summary()}", SqlCommandType.SELECT, "Post");
+    MappedStatement unknownWrite = statement("unknown", "{call cleanup()}", SqlCommandType.UPDATE, null);
+
+    assertEquals(Collections.singleton(TableDependencyIndex.ANY_TABLE), index.readTables(proc, proc.getBoundSql(null)));
+    assertEquals(tables("post"), index.readTables(declared, null));
+    assertNull(index.writeTables(unknownWrite, unknownWrite.getBoundSql(null)));
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    put(index, tcm, cache, proc, "s1");
+    put(index, tcm, cache, declared, "d1");
+    tcm.commit();
+    index.invalidate(tables("comment"), tcm);
+    tcm.rollback();
+    assertNull("unknown reads are invalidated by any write, even on rollback", cache.getObject(key("s1")));
+    assertEquals("d1", cache.getObject(key("d1")));
+  }
+
+  @Test
+  public void shouldClearWholeCacheWhenTrackedKeysOverflow() {
+    TableDependencyIndex index = new TableDependencyIndex(2);
+    Cache cache = new PerpetualCache("ns");
+    MappedStatement select = statement("select", "select * from author", SqlCommandType.SELECT, null);
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    put(index, tcm, cache, select, "a");
+    put(index, tcm, cache, select, "b");
+    put(index, tcm, cache, select, "c");
+    cache.putObject("unrelated", "x");
+    tcm.commit();
+    index.invalidate(tables("author"), tcm);
+    tcm.commit();
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldInvalidateEntryCommittedAfterTheWriteLookedItUp() {
+    TableDependencyIndex index = new TableDependencyIndex();
+    Cache cache = new PerpetualCache("ns");
+    MappedStatement select = statement("select", "select * from author", SqlCommandType.SELECT, null);
+    TransactionalCacheManager reader = new TransactionalCacheManager();
+    TransactionalCacheManager writer = new TransactionalCacheManager();
+    put(index, reader, cache, select, "stale");
+    index.invalidate(tables("author"), writer);
+    writer.commit();
+    reader.commit();
+    assertEquals("stale", cache.getObject(key("stale")));
+
+    index.invalidate(tables("author"), writer);
+    writer.commit();
+    assertNull("the key is still tracked", cache.getObject(key("stale")));
+  }
+
+  @Test
+  public void shouldReleaseEvictedKeysInsteadOfOverflowing() {
+    TableDependencyIndex index = new TableDependencyIndex(3);
+    LruCache cache = new LruCache(new PerpetualCache("ns"));
+    cache.setSize(2);
+    cache.setEvictionListener(index.evictionListener("ns"));
+    MappedStatement selectAuthor = statement("selectAuthor", "select * from author", SqlCommandType.SELECT, null);
+    MappedStatement selectPost = statement("selectPost", "select * from post", SqlCommandType.SELECT, null);
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    for (String value : new String[] { "a", "b", "c", "d", "e" }) {
+      put(index, tcm, cache, selectAuthor, value);
+      tcm.commit();
+    }
+    put(index, tcm, cache, selectPost, "p");
+    tcm.commit();
+    index.invalidate(tables("author"), tcm);
+    tcm.commit();
+    assertNull(cache.getObject(key("e")));
+    assertEquals("p", cache.getObject(key("p")));
+  }
+
+  @Test
+  public void shouldTrackKeysAgainAfterTheCacheIsCleared() {
+    TableDependencyIndex index = new TableDependencyIndex(1);
+    LruCache cache = new LruCache(new PerpetualCache("ns"));
+    cache.setEvictionListener(index.evictionListener("ns"));
+    MappedStatement selectAuthor = statement("selectAuthor", "select * from author", SqlCommandType.SELECT, null);
+    MappedStatement selectPost = statement("selectPost", "select * from post", SqlCommandType.SELECT, null);
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    put(index, tcm, cache, selectAuthor, "a");
+    put(index, tcm, cache, selectAuthor, "b");
+    tcm.commit();
+    cache.clear();
+    put(index, tcm, cache, selectAuthor, "a");
+    put(index, tcm, cache, selectPost, "p");
+    tcm.commit();
+    index.invalidate(tables("author"), tcm);
+    tcm.commit();
+    assertNull(cache.getObject(key("a")));
+    assertEquals("p", cache.getObject(key("p")));
+  }
+
+  private void put(TableDependencyIndex index, TransactionalCacheManager tcm, Cache cache, MappedStatement ms, String value) {
+    tcm.putObject(cache, key(value), value, index,
+        index.readTables(ms, ms.getTables() == null ? ms.getBoundSql(null) : null));
+  }
+
+  private CacheKey key(String value) {
+    CacheKey key = new CacheKey();
+    key.update(value);
+    return key;
+  }
+
+  private MappedStatement statement(String id, String sql, SqlCommandType type, String tables) {
+    return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), type).tables(tables).build();
+  }
+
+  private static Set<String> tables(String... names) {
+    return new HashSet<>(Arrays.asList(names));
+  }
+
+}
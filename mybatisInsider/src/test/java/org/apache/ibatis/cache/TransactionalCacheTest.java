@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class TransactionalCacheTest {
+
+  @Test
+  public void shouldNotStoreMissesInNonBlockingCaches() {
+    Cache cache = new CacheBuilder("default").build();
+    TransactionalCache txCache = new TransactionalCache(cache);
+    assertNull(txCache.getObject("missing"));
+    txCache.putObject("loaded", "value");
+    txCache.commit();
+    assertEquals(1, cache.getSize());
+    assertEquals("value", cache.getObject("loaded"));
+  }
+
+  @Test
+  public void shouldReleaseBlockingCacheLocksOnCommit() throws Exception {
+    Cache cache = new CacheBuilder("default").blocking(true).build();
+    TransactionalCache txCache = new TransactionalCache(cache);
+    assertNull(txCache.getObject("missing"));
+    txCache.commit();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertNull(executor.submit(() -> {
+        Object value = cache.getObject("missing");
+        cache.removeObject("missing");
+        return value;
+      }).get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldBeReusableAcrossTransactions() {
+    Cache cache = new CacheBuilder("default").build();
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.putObject("a", "1");
+    txCache.rollback();
+    assertNull(cache.getObject("a"));
+    txCache.putObject("b", "2");
+    txCache.commit();
+    assertNull(cache.getObject("a"));
+    assertEquals("2", cache.getObject("b"));
+    txCache.invalidate("b");
+    assertNull(txCache.getObject("b"));
+    txCache.commit();
+    assertNull(cache.getObject("b"));
+  }
+
+}
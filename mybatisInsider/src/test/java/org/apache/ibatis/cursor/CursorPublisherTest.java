@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class CursorPublisherTest {
+
+  @Test
+  public void shouldEmitOnlyRequestedItems() {
+    RangeCursor cursor = new RangeCursor(10);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.items.size());
+    assertEquals(3, cursor.fetched);
+
+    subscriber.subscription.request(100);
+    assertEquals(10, subscriber.items.size());
+    assertTrue(subscriber.completed);
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  public void shouldCloseCursorOnCancel() {
+    RangeCursor cursor = new RangeCursor(10);
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(Integer item) {
+        super.onNext(item);
+        if (item == 4) {
+          subscription.cancel();
+        }
+      }
+    };
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(5, subscriber.items.size());
+    assertFalse(subscriber.completed);
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  public void shouldSignalErrorForInvalidDemandAndSecondSubscriber() {
+    RangeCursor cursor = new RangeCursor(10);
+    CursorPublisher<Integer> publisher = new CursorPublisher<>(cursor);
+    RecordingSubscriber first = new RecordingSubscriber();
+    publisher.subscribe(first);
+    first.subscription.request(0);
+    assertTrue(first.error instanceof IllegalArgumentException);
+    assertTrue(cursor.closed);
+
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  public void shouldStreamLazilyAndCloseWithTheStream() {
+    RangeCursor cursor = new RangeCursor(100);
+    List<Integer> firstThree;
+    try (Stream<Integer> stream = cursor.stream()) {
+      firstThree = stream.limit(3).collect(Collectors.toList());
+      assertFalse(cursor.closed);
+    }
+    assertEquals(3, firstThree.size());
+    assertTrue(cursor.fetched <= 4);
+    assertTrue(cursor.closed);
+  }
+
+  private static class RecordingSubscriber implements CursorPublisher.Subscriber<Integer> {
+    CursorPublisher.Subscription subscription;
+    final List<Integer> items = new ArrayList<>();
+    Throwable error;
+    boolean completed;
+
+    @Override
+    public void onSubscribe(CursorPublisher.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Integer item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+  private static class RangeCursor implements Cursor<Integer> {
+    private final int size;
+    private int fetched;
+    private boolean closed;
+
+    RangeCursor(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return fetched > 0 && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return fetched == size;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return fetched - 1;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return !closed && fetched < size;
+        }
+
+        @Override
+        public Integer next() {
+          return fetched++;
+        }
+      };
+    }
+  }
+
+}
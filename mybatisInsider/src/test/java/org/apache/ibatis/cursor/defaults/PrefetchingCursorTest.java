@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.Test;
+
+public class PrefetchingCursorTest {
+
+  @Test
+  public void shouldReturnAllRowsInOrder() throws Exception {
+    ListCursor source = new ListCursor(1000, -1);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(source, 0, 64, 2);
+    assertFalse(cursor.isOpen());
+    int expected = 0;
+    for (Integer row : cursor) {
+      assertEquals(expected, row.intValue());
+      assertEquals(expected, cursor.getCurrentIndex());
+      expected++;
+    }
+    assertEquals(1000, expected);
+    assertTrue(cursor.isConsumed());
+    assertFalse(cursor.isOpen());
+    cursor.close();
+    assertTrue(source.closed);
+  }
+
+  @Test
+  public void shouldCloseSourceWhenClosedEarly() throws Exception {
+    ListCursor source = new ListCursor(100000, -1);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(source, 10, 16, 2);
+    Iterator<Integer> iterator = cursor.iterator();
+    assertEquals(0, iterator.next().intValue());
+    assertEquals(10, cursor.getCurrentIndex());
+    assertTrue(cursor.isOpen());
+    cursor.close();
+    assertTrue(source.closed);
+    assertFalse(iterator.hasNext());
+    assertTrue(source.produced < 100000);
+  }
+
+  @Test
+  public void shouldRethrowFailureOfTheBackgroundFetch() {
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(new ListCursor(50, 20), 0, 8, 2);
+    Iterator<Integer> iterator = cursor.iterator();
+    int read = 0;
+    try {
+      while (iterator.hasNext()) {
+        iterator.next();
+        read++;
+      }
+      fail("Expected the fetch failure");
+    } catch (IllegalStateException e) {
+      assertEquals("row 20", e.getMessage());
+    }
+    assertEquals(16, read);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void shouldFailPastTheEnd() {
+    Iterator<Integer> iterator = new PrefetchingCursor<>(new ListCursor(1, -1), 0, 8, 2).iterator();
+    iterator.next();
+    iterator.next();
+  }
+
+  private static class ListCursor implements Cursor<Integer> {
+    private final int size;
+    private final int failAt;
+    private volatile boolean closed;
+    private volatile int produced;
+
+    ListCursor(int size, int failAt) {
+      this.size = size;
+      this.failAt = failAt;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return produced == size;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return produced - 1;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return !closed && produced < size;
+        }
+
+        @Override
+        public Integer next() {
+          if (produced == failAt) {
+            throw new IllegalStateException("row " + failAt);
+          }
+          return produced++;
+        }
+      };
+    }
+  }
+
+}
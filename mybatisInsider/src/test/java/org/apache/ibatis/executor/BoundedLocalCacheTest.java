@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.cache.SamplingWeigher;
+
+import org.junit.Test;
+
+public class BoundedLocalCacheTest {
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntriesOnlyWhenTrimmed() {
+    BoundedLocalCache cache = new BoundedLocalCache("LocalCache", 2, 0, new SamplingWeigher());
+    cache.putObject("a", Collections.emptyList());
+    cache.putObject("b", Collections.emptyList());
+    cache.putObject("c", Collections.emptyList());
+    assertEquals(3, cache.getSize());
+    assertNotNull(cache.getObject("a"));
+    cache.trim();
+    assertEquals(2, cache.getSize());
+    assertNotNull(cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    assertNotNull(cache.getObject("c"));
+  }
+
+  @Test
+  public void shouldEvictByApproximateSize() {
+    BoundedLocalCache cache = new BoundedLocalCache("LocalCache", 0, 4096, new SamplingWeigher());
+    cache.putObject("small", Arrays.asList(1));
+    List<String> large = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      large.add("a reasonably long column value " + i);
+    }
+    cache.putObject("large", large);
+    cache.trim();
+    assertNull(cache.getObject("small"));
+    assertNull(cache.getObject("large"));
+    assertEquals(0, cache.getBytes());
+
+    cache.putObject("small", Arrays.asList(1));
+    cache.putObject("other", Arrays.asList(2));
+    cache.trim();
+    assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  public void shouldTrackReplacedAndRemovedEntries() {
+    BoundedLocalCache cache = new BoundedLocalCache("LocalCache", 0, 1L << 30, new SamplingWeigher());
+    cache.putObject("a", Arrays.asList("one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten"));
+    long tenRows = cache.getBytes();
+    cache.putObject("a", Arrays.asList(1));
+    assertTrue(cache.getBytes() < tenRows);
+    cache.removeObject("a");
+    assertEquals(0, cache.getBytes());
+    cache.putObject("b", Arrays.asList(1));
+    cache.clear();
+    assertEquals(0, cache.getBytes());
+    assertEquals(0, cache.getSize());
+  }
+
+}
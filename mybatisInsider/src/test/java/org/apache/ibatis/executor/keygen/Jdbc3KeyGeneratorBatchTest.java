@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.keygen;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class Jdbc3KeyGeneratorBatchTest {
+
+  @Test
+  public void shouldAssignKeysToBeansAndMapsInOrder() {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "insertCountry",
+        new StaticSqlSource(configuration, "insert into country (name) values (?)"), SqlCommandType.INSERT)
+        .keyGenerator(Jdbc3KeyGenerator.INSTANCE)
+        .keyProperty("id")
+        .build();
+    List<Object> parameters = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      parameters.add(new Country());
+    }
+    Map<String, Object> map = new HashMap<>();
+    parameters.add(map);
+
+    Jdbc3KeyGenerator.INSTANCE.processBatch(ms, generatedKeys(101, 102, 103, 104), parameters);
+
+    assertEquals(Integer.valueOf(101), ((Country) parameters.get(0)).getId());
+    assertEquals(Integer.valueOf(103), ((Country) parameters.get(2)).getId());
+    assertEquals(104, map.get("id"));
+  }
+
+  private Statement generatedKeys(final int... keys) {
+    final ResultSetMetaData rsmd = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+          if ("getColumnCount".equals(method.getName())) {
+            return 1;
+          } else if ("getColumnType".equals(method.getName())) {
+            return Types.INTEGER;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    final int[] row = {-1};
+    final ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getMetaData":
+              return rsmd;
+            case "next":
+              return ++row[0] < keys.length;
+            case "getInt":
+              return keys[row[0]];
+            case "getObject":
+              return keys[row[0]];
+            case "wasNull":
+              return false;
+            case "close":
+              return null;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+          if ("getGeneratedKeys".equals(method.getName())) {
+            return rs;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  public static class Country {
+    private Integer id;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public void setId(Integer id) {
+      this.id = id;
+    }
+  }
+
+}
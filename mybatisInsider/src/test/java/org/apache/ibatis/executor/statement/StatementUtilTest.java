@@ -0,0 +1,86 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StatementUtilTest {
+
+  private final List<String> calls = new ArrayList<>();
+
+  @Test
+  public void shouldNotChangeAutoCommitForPostgresqlCursors() throws Exception {
+    StatementUtil.applyCursorFetchHints(statement("PostgreSQL", true), 100);
+    assertEquals("[getAutoCommit]", calls.toString());
+
+    calls.clear();
+    StatementUtil.applyCursorFetchHints(statement("PostgreSQL", false), 100);
+    assertEquals("[getAutoCommit, setFetchSize 100]", calls.toString());
+  }
+
+  @Test
+  public void shouldStreamMysqlAndSetFetchSizeElsewhere() throws Exception {
+    StatementUtil.applyCursorFetchHints(statement("MySQL", true), 100);
+    assertEquals("[setFetchSize " + Integer.MIN_VALUE + "]", calls.toString());
+
+    calls.clear();
+    StatementUtil.applyCursorFetchHints(statement("Apache Derby", true), 100);
+    assertEquals("[setFetchSize 100]", calls.toString());
+  }
+
+  private Statement statement(String product, boolean autoCommit) {
+    DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { DatabaseMetaData.class }, (proxy, method, args) -> product);
+    Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getMetaData":
+              return metaData;
+            case "getAutoCommit":
+              calls.add(method.getName());
+              return autoCommit;
+            default:
+              calls.add(method.getName());
+              return null;
+          }
+        });
+    return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getConnection":
+              return connection;
+            case "getResultSetType":
+              return ResultSet.TYPE_FORWARD_ONLY;
+            case "getResultSetConcurrency":
+              return ResultSet.CONCUR_READ_ONLY;
+            default:
+              calls.add(method.getName() + " " + args[0]);
+              return null;
+          }
+        });
+  }
+
+}
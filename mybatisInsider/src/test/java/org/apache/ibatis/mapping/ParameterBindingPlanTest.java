@@ -0,0 +1,159 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.Test;
+
+public class ParameterBindingPlanTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void shouldReadBeanPropertiesThroughResolvedGetters() {
+    Author author = new Author();
+    author.id = 7;
+    author.name = "jane";
+    author.address = new Address();
+    author.address.city = "Lima";
+    List<ParameterMapping> mappings = mappings("id", Integer.class, "name", String.class, "address.city", String.class);
+    ParameterBindingPlan plan = ParameterBindingPlan.build(configuration, mappings, Author.class);
+    BoundSql boundSql = new BoundSql(configuration, "sql", mappings, author);
+    MetaObject metaObject = configuration.newMetaObject(author);
+
+    assertEquals(3, plan.size());
+    assertFalse(plan.getBinding(0).needsMetaObject());
+    assertFalse(plan.getBinding(2).needsMetaObject());
+    assertEquals(7, plan.getBinding(0).getValue(boundSql, author, metaObject));
+    assertEquals("jane", plan.getBinding(1).getValue(boundSql, author, metaObject));
+    assertEquals("Lima", plan.getBinding(2).getValue(boundSql, author, metaObject));
+    assertEquals(3, plan.getBinding(2).getPosition());
+  }
+
+  @Test
+  public void shouldReadMapEntriesAndSimpleParameters() {
+    Map<String, Object> param = new HashMap<>();
+    param.put("id", 3);
+    List<ParameterMapping> mappings = mappings("id", Integer.class);
+    ParameterBindingPlan mapPlan = ParameterBindingPlan.build(configuration, mappings, HashMap.class);
+    assertEquals(3, mapPlan.getBinding(0).getValue(new BoundSql(configuration, "sql", mappings, param), param, null));
+
+    ParameterBindingPlan simplePlan = ParameterBindingPlan.build(configuration, mappings, Integer.class);
+    assertEquals(5, simplePlan.getBinding(0).getValue(new BoundSql(configuration, "sql", mappings, 5), 5, null));
+  }
+
+  @Test
+  public void shouldPreferAdditionalParameters() {
+    List<ParameterMapping> mappings = mappings("__frch_item_0", Integer.class);
+    ParameterBindingPlan plan = ParameterBindingPlan.build(configuration, mappings, HashMap.class);
+    Map<String, Object> param = new HashMap<>();
+    BoundSql boundSql = new BoundSql(configuration, "sql", mappings, param);
+    boundSql.setAdditionalParameter("__frch_item_0", 11);
+    assertEquals(11, plan.getBinding(0).getValue(boundSql, param, null));
+    assertEquals(11, plan.getBinding(0).getValue(boundSql, null, null));
+  }
+
+  @Test
+  public void shouldMatchEquivalentMappingLayouts() {
+    List<ParameterMapping> mappings = mappings("id", Integer.class, "name", String.class);
+    ParameterBindingPlan plan = ParameterBindingPlan.build(configuration, mappings, Author.class);
+    assertTrue(plan.matches(mappings, Author.class));
+    assertTrue(plan.matches(mappings("id", Integer.class, "name", String.class), Author.class));
+    assertFalse(plan.matches(mappings, HashMap.class));
+    assertFalse(plan.matches(mappings("id", Integer.class), Author.class));
+    assertFalse(plan.matches(mappings("id", Integer.class, "title", String.class), Author.class));
+  }
+
+  @Test
+  public void shouldKeepAPlanPerLayoutAndParameterType() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "select", null, SqlCommandType.SELECT).build();
+    List<ParameterMapping> byId = mappings("id", Integer.class);
+    List<ParameterMapping> byName = mappings("name", String.class);
+    ParameterBindingPlan idPlan = ms.getParameterBindingPlan(new BoundSql(configuration, "sql", byId, null), new Author());
+    ParameterBindingPlan namePlan = ms.getParameterBindingPlan(new BoundSql(configuration, "sql", byName, null), new Author());
+    ParameterBindingPlan mapPlan = ms.getParameterBindingPlan(new BoundSql(configuration, "sql", byId, null), new HashMap<>());
+    assertFalse(idPlan == namePlan);
+    assertFalse(idPlan == mapPlan);
+    for (int i = 0; i < 3; i++) {
+      assertSame(idPlan, ms.getParameterBindingPlan(
+          new BoundSql(configuration, "sql", mappings("id", Integer.class), null), new Author()));
+      assertSame(namePlan, ms.getParameterBindingPlan(
+          new BoundSql(configuration, "sql", mappings("name", String.class), null), new Author()));
+      assertSame(mapPlan, ms.getParameterBindingPlan(new BoundSql(configuration, "sql", byId, null), new HashMap<>()));
+    }
+    for (int i = 0; i < 20; i++) {
+      List<ParameterMapping> mappings = mappings("p" + i, Integer.class);
+      assertTrue(ms.getParameterBindingPlan(new BoundSql(configuration, "sql", mappings, null), new HashMap<>())
+          .matches(mappings, HashMap.class));
+    }
+  }
+
+  @Test
+  public void shouldSkipOutParameters() {
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    ParameterMapping out = new ParameterMapping.Builder(configuration, "id", registry.getTypeHandler(Integer.class))
+        .mode(ParameterMode.OUT).build();
+    ParameterBindingPlan plan = ParameterBindingPlan.build(configuration, Arrays.asList(out), Author.class);
+    assertFalse(plan.getBinding(0).isInput());
+  }
+
+  private List<ParameterMapping> mappings(Object... propertiesAndTypes) {
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    List<ParameterMapping> mappings = new ArrayList<>();
+    for (int i = 0; i < propertiesAndTypes.length; i += 2) {
+      Class<?> type = (Class<?>) propertiesAndTypes[i + 1];
+      mappings.add(new ParameterMapping.Builder(configuration, (String) propertiesAndTypes[i], registry.getTypeHandler(type)).build());
+    }
+    return mappings;
+  }
+
+  public static class Author {
+    private Integer id;
+    private String name;
+    private Address address;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Address getAddress() {
+      return address;
+    }
+  }
+
+  public static class Address {
+    private String city;
+
+    public String getCity() {
+      return city;
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class DefaultMetricsCollectorTest {
+
+  @Test
+  public void shouldRecordPhasesRowsAndCacheAccessesPerStatement() {
+    MetricsCollector collector = new DefaultMetricsCollector();
+    collector.recordPhase("selectBlog", ExecutionPhase.PREPARE, 1000);
+    collector.recordPhase("selectBlog", ExecutionPhase.EXECUTE, 5000);
+    collector.recordPhase("selectBlog", ExecutionPhase.EXECUTE, 7000);
+    collector.recordPhase("selectBlog", ExecutionPhase.MAP, 2000);
+    collector.recordRowsFetched("selectBlog", 3);
+    collector.recordRowsFetched("selectBlog", 2);
+    collector.recordCacheAccess("selectBlog", CacheLevel.LOCAL, true);
+    collector.recordCacheAccess("selectBlog", CacheLevel.LOCAL, false);
+    collector.recordCacheAccess("selectBlog", CacheLevel.SECOND_LEVEL, false);
+    collector.recordRowsAffected("insertBlog", 1);
+
+    MetricsSnapshot snapshot = collector.snapshot();
+    StatementMetricsSnapshot select = snapshot.getStatement("selectBlog");
+    assertEquals(1, select.getLatency(ExecutionPhase.PREPARE).getCount());
+    assertEquals(2, select.getLatency(ExecutionPhase.EXECUTE).getCount());
+    assertEquals(6000, select.getLatency(ExecutionPhase.EXECUTE).getMean());
+    assertEquals(7000, select.getLatency(ExecutionPhase.EXECUTE).getMax());
+    assertEquals(5, select.getRowsFetched());
+    assertEquals(1, select.getCacheHits(CacheLevel.LOCAL));
+    assertEquals(1, select.getCacheMisses(CacheLevel.LOCAL));
+    assertEquals(0, select.getCacheHits(CacheLevel.SECOND_LEVEL));
+    assertEquals(1, select.getCacheMisses(CacheLevel.SECOND_LEVEL));
+    assertEquals(1, snapshot.getStatement("insertBlog").getRowsAffected());
+    assertEquals(0, snapshot.getStatement("insertBlog").getLatency(ExecutionPhase.MAP).getCount());
+  }
+
+  @Test
+  public void shouldApproximatePercentilesByBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000L);
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(100, snapshot.getCount());
+    assertEquals(100000, snapshot.getMax());
+    long p50 = snapshot.getPercentile(0.5);
+    // the bucket upper bound is at most twice the exact value
+    assertTrue(p50 >= 50000 && p50 < 100000);
+    assertEquals(100000, snapshot.getPercentile(1.0));
+  }
+
+  @Test
+  public void shouldRecordConnectionCheckoutFromManyThreads() throws Exception {
+    final MetricsCollector collector = new DefaultMetricsCollector();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          collector.recordConnectionCheckout(10);
+          collector.recordRowsFetched("selectAuthor", 1);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    MetricsSnapshot snapshot = collector.snapshot();
+    assertEquals(4000, snapshot.getConnectionCheckout().getCount());
+    assertEquals(4000, snapshot.getStatement("selectAuthor").getRowsFetched());
+  }
+
+  @Test
+  public void shouldBeDisabledByDefault() {
+    Configuration configuration = new Configuration();
+    assertEquals(false, configuration.isMetricsEnabled());
+    assertNull(configuration.getMetricsCollector().snapshot().getStatement("any"));
+    configuration.setMetricsCollector(new DefaultMetricsCollector());
+    assertTrue(configuration.isMetricsEnabled());
+    configuration.setMetricsCollector(null);
+    assertEquals(false, configuration.isMetricsEnabled());
+  }
+
+}
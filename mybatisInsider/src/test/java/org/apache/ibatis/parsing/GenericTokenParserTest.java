@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -84,6 +85,16 @@ public class GenericTokenParserTest {
     assertEquals("The null is ${skipped} variable", parser.parse("The ${skipped} is \\${skipped} variable"));
   }
 
+  @Test
+  public void shouldSplitTextIntoLiteralsAndTokens() {
+    GenericTokenParser parser = new GenericTokenParser("${", "}", null);
+
+    assertEquals(Arrays.asList("select ", "col", " from ", "table", ""), parser.split("select ${col} from ${table}"));
+    assertEquals(Arrays.asList("", "a", "", "b", " ${c} \\"), parser.split("${a}${b} \\${c} \\"));
+    assertEquals(Arrays.asList("Hello ${ this is a test."), parser.split("Hello ${ this is a test."));
+    assertEquals(Arrays.asList(""), parser.split(null));
+  }
+
   @Ignore("Because it randomly fails on Travis CI. It could be useful during development.")
   @Test(timeout = 1000)
   public void shouldParseFastOnJdk7u6() {
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class CompiledPluginTest {
+
+  @Test
+  public void shouldWrapOnceAndRunInterceptorsInNestedProxyOrder() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain nested = new InterceptorChain();
+    InterceptorChain compiled = new InterceptorChain();
+    compiled.setCompiled(true);
+    for (InterceptorChain chain : new InterceptorChain[] { nested, compiled }) {
+      chain.addInterceptor(new TracingMapPlugin("first", calls));
+      chain.addInterceptor(new TracingMapPlugin("second", calls));
+    }
+
+    Map<String, String> map = new HashMap<>();
+    map.put("key", "value");
+    @SuppressWarnings("unchecked")
+    Map<String, String> nestedMap = (Map<String, String>) nested.pluginAll(map);
+    assertEquals("value", nestedMap.get("key"));
+    List<String> expected = new ArrayList<>(calls);
+    calls.clear();
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> compiledMap = (Map<String, String>) compiled.pluginAll(map);
+    assertEquals("value", compiledMap.get("key"));
+    assertEquals(expected, calls);
+    assertTrue(Proxy.getInvocationHandler(compiledMap) instanceof CompiledPlugin);
+  }
+
+  @Test
+  public void shouldPassThroughMethodsNoPluginIntercepts() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new TracingMapPlugin("only", calls));
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<String, String>());
+    map.put("key", "value");
+    assertEquals(1, map.size());
+    assertFalse(map.isEmpty());
+    assertEquals("{key=value}", map.toString());
+    try {
+      map.merge("key", null, (oldValue, value) -> value);
+      fail();
+    } catch (NullPointerException e) {
+      // thrown by the target itself, not wrapped
+    }
+    assertTrue(calls.isEmpty());
+  }
+
+  @Test
+  public void shouldNotWrapTargetsNoPluginApplies() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new TracingMapPlugin("only", new ArrayList<>()));
+    List<String> list = new ArrayList<>();
+    assertSame(list, chain.pluginAll(list));
+  }
+
+  @Test
+  public void shouldPropagateExceptionThrownByInnerInterceptor() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new FailingMapPlugin());
+    chain.addInterceptor(new TracingMapPlugin("outer", new ArrayList<>()));
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<String, String>());
+    try {
+      map.get("key");
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("failed", e.getMessage());
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class TracingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    TracingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add("before " + name);
+      Object result = invocation.proceed();
+      calls.add("after " + name);
+      return result;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class FailingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      throw new IllegalStateException("failed");
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
+}
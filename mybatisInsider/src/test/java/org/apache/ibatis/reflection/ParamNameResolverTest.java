@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+public class ParamNameResolverTest {
+
+  @Test
+  public void shouldReturnSingleParameterUnwrapped() throws Exception {
+    ParamNameResolver resolver = resolverFor("single", Integer.class);
+    assertEquals(7, resolver.getNamedParams(new Object[] { 7 }));
+  }
+
+  @Test
+  public void shouldReturnNullWithoutParameters() throws Exception {
+    ParamNameResolver resolver = resolverFor("none");
+    assertNull(resolver.getNamedParams(new Object[0]));
+  }
+
+  @Test
+  public void shouldAddGenericNamesSkippingSpecialParameters() throws Exception {
+    ParamNameResolver resolver = resolverFor("multiple", String.class, RowBounds.class, Integer.class);
+    Map<?, ?> params = (Map<?, ?>) resolver.getNamedParams(new Object[] { "a", RowBounds.DEFAULT, 2 });
+    assertEquals("a", params.get("name"));
+    assertEquals(2, params.get("age"));
+    assertEquals("a", params.get("param1"));
+    assertEquals(2, params.get("param2"));
+    assertEquals(4, params.size());
+  }
+
+  @Test
+  public void shouldNotOverwriteParamNamedLikeGenericName() throws Exception {
+    ParamNameResolver resolver = resolverFor("clashing", String.class, String.class);
+    Map<?, ?> params = (Map<?, ?>) resolver.getNamedParams(new Object[] { "first", "second" });
+    assertEquals("second", params.get("param1"));
+    assertEquals("first", params.get("param2"));
+    assertEquals(2, params.size());
+  }
+
+  private ParamNameResolver resolverFor(String methodName, Class<?>... parameterTypes) throws Exception {
+    Method method = Mapper.class.getMethod(methodName, parameterTypes);
+    return new ParamNameResolver(new Configuration(), method);
+  }
+
+  interface Mapper {
+    void none();
+
+    void single(Integer id);
+
+    void multiple(@Param("name") String name, RowBounds rowBounds, @Param("age") Integer age);
+
+    void clashing(@Param("param2") String a, @Param("param1") String b);
+  }
+
+}
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class BindingResolverTest {
+
+  private final Configuration configuration = new Configuration();
+  private final BindingResolver resolver = configuration.getBindingResolver();
+
+  @Test
+  public void shouldReadPropertyPathsLikeMetaObject() {
+    Author author = new Author("jane", new Address("Lima"));
+    for (int i = 0; i < 2; i++) {
+      assertEquals("jane", resolver.getValue(author, "name"));
+      assertEquals("Lima", resolver.getValue(author, "address.city"));
+    }
+    assertNull(resolver.getValue(new Author("john", null), "address.city"));
+    assertEquals("Lima", resolver.getValue(author, "address.city"));
+  }
+
+  @Test
+  public void shouldReadMapEntriesAndIndexedPaths() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("author", new Author("jane", new Address("Lima")));
+    map.put("authors", Arrays.asList(new Author("john", null)));
+    assertEquals("Lima", resolver.getValue(map, "author.address.city"));
+    assertEquals("john", resolver.getValue(map, "authors[0].name"));
+    assertNull(resolver.getValue(map, "missing.name"));
+  }
+
+  @Test
+  public void shouldFallBackWhenTheClassOnThePathChanges() {
+    Holder holder = new Holder();
+    holder.value = new Author("jane", null);
+    assertEquals("jane", resolver.getValue(holder, "value.name"));
+    Map<String, Object> map = new HashMap<>();
+    map.put("name", "john");
+    holder.value = map;
+    assertEquals("john", resolver.getValue(holder, "value.name"));
+    holder.value = null;
+    assertNull(resolver.getValue(holder, "value.name"));
+  }
+
+  @Test
+  public void shouldReportMissingGettersLikeMetaObject() {
+    try {
+      resolver.getValue(new Author("jane", null), "title");
+      fail();
+    } catch (ReflectionException e) {
+      assertTrue(e.getMessage().contains("title"));
+    }
+  }
+
+  public static class Author {
+    private final String name;
+    private final Address address;
+
+    public Author(String name, Address address) {
+      this.name = name;
+      this.address = address;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Address getAddress() {
+      return address;
+    }
+  }
+
+  public static class Address {
+    private final String city;
+
+    public Address(String city) {
+      this.city = city;
+    }
+
+    public String getCity() {
+      return city;
+    }
+  }
+
+  public static class Holder {
+    private Object value;
+
+    public Object getValue() {
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.Test;
+
+public class ForEachSqlNodeTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void shouldRenderStaticBodyWithoutPerItemBindings() {
+    BoundSql boundSql = boundSql(new StaticTextSqlNode("#{id, jdbcType=INTEGER}"), "id", null, "(", ",", ")",
+        parameter(Arrays.asList(3, 5, 7)));
+    assertEquals("select * from author where id in ( ? , ? , ? )", boundSql.getSql().replaceAll("\\s+", " "));
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    assertEquals(3, mappings.size());
+    for (int i = 0; i < mappings.size(); i++) {
+      assertEquals(Integer.class, mappings.get(i).getJavaType());
+      assertEquals(JdbcType.INTEGER, mappings.get(i).getJdbcType());
+      assertTrue(mappings.get(i).getTypeHandler() instanceof IntegerTypeHandler);
+      assertEquals(2 * i + 3, boundSql.getAdditionalParameter(mappings.get(i).getProperty()));
+    }
+    assertFalse(boundSql.hasAdditionalParameter("__frch_id_0"));
+    assertFalse(boundSql.hasAdditionalParameter("id"));
+  }
+
+  @Test
+  public void shouldResolveItemPropertiesIndexAndOtherTokens() {
+    Map<String, Object> parameter = parameter(Arrays.asList(new Name("a"), new Name(null)));
+    parameter.put("suffix", "x");
+    BoundSql boundSql = boundSql(new StaticTextSqlNode("(#{i}, #{n.value}, #{suffix})"), "n", "i", null, ",", null,
+        parameter);
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    assertEquals(6, mappings.size());
+    assertEquals(0, value(boundSql, mappings.get(0)));
+    assertEquals("a", value(boundSql, mappings.get(1)));
+    assertEquals(String.class, mappings.get(1).getJavaType());
+    assertTrue(mappings.get(1).getTypeHandler() instanceof StringTypeHandler);
+    assertEquals("suffix", mappings.get(2).getProperty());
+    assertEquals(1, value(boundSql, mappings.get(3)));
+    assertNull(value(boundSql, mappings.get(4)));
+    assertEquals(String.class, mappings.get(4).getJavaType());
+  }
+
+  @Test
+  public void shouldTakeGeneralPathForDynamicBody() {
+    SqlNode body = new MixedSqlNode(Arrays.<SqlNode>asList(new StaticTextSqlNode("#{id}"),
+        new IfSqlNode(new StaticTextSqlNode("+ 1"), "id == 5")));
+    assertNull(ForEachTemplate.compile(configuration, body, "id", null));
+    assertNull(ForEachTemplate.compile(configuration, new StaticTextSqlNode("#{id, mode=OUT}"), "id", null));
+    BoundSql boundSql = boundSql(body, "id", null, "(", ",", ")", parameter(Arrays.asList(3, 5)));
+    assertEquals("select * from author where id in ( ? , ? + 1 )", boundSql.getSql().replaceAll("\\s+", " "));
+    assertEquals(5, boundSql.getAdditionalParameter("__frch_id_1"));
+  }
+
+  @Test
+  public void shouldBindCollectionAsArrayOnSupportingDatabase() {
+    SqlNode body = new StaticTextSqlNode("#{n.value}");
+    Map<String, Object> parameter = parameter(Arrays.asList(new Name("a"), new Name("b")));
+    BoundSql boundSql = boundSql(body, "n", null, "(", ",", ")", parameter, true);
+    assertEquals("select * from author where id in ( ? , ? )", boundSql.getSql().replaceAll("\\s+", " "));
+
+    configuration.setDatabaseId("postgresql");
+    boundSql = boundSql(body, "n", null, "(", ",", ")", parameter, true);
+    assertEquals("select * from author where id in ( SELECT * FROM UNNEST( ?) )", boundSql.getSql());
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    assertEquals(1, mappings.size());
+    assertTrue(mappings.get(0).getTypeHandler() instanceof ArrayTypeHandler);
+    assertEquals(Arrays.asList("a", "b"), boundSql.getAdditionalParameter(mappings.get(0).getProperty()));
+  }
+
+  @Test
+  public void shouldTrimRenderedPlaceholdersInWhere() {
+    SqlNode foreach = new ForEachSqlNode(configuration, new StaticTextSqlNode(" or id = #{id} "), "list", null, "id",
+        null, null, null);
+    SqlNode root = new MixedSqlNode(Arrays.asList(new StaticTextSqlNode("select * from author"),
+        new WhereSqlNode(configuration, foreach)));
+    BoundSql boundSql = new DynamicSqlSource(configuration, root).getBoundSql(parameter(Arrays.asList(3, 5)));
+    assertEquals("select * from author WHERE id = ? or id = ?", boundSql.getSql().replaceAll("\\s+", " "));
+    assertEquals(2, boundSql.getParameterMappings().size());
+    assertEquals(5, value(boundSql, boundSql.getParameterMappings().get(1)));
+  }
+
+  @Test
+  public void shouldRenderNothingForEmptyCollection() {
+    BoundSql boundSql = boundSql(new StaticTextSqlNode("#{id}"), "id", null, "(", ",", ")",
+        parameter(Collections.emptyList()));
+    assertEquals("select * from author where id in", boundSql.getSql());
+    assertTrue(boundSql.getParameterMappings().isEmpty());
+  }
+
+  private BoundSql boundSql(SqlNode body, String item, String index, String open, String separator, String close,
+      Object parameter) {
+    return boundSql(body, item, index, open, separator, close, parameter, false);
+  }
+
+  private BoundSql boundSql(SqlNode body, String item, String index, String open, String separator, String close,
+      Object parameter, boolean bindAsArray) {
+    SqlNode foreach = new ForEachSqlNode(configuration, body, "list", index, item, open, close, separator, 0, false,
+        false, bindAsArray);
+    SqlNode root = new MixedSqlNode(Arrays.asList(new StaticTextSqlNode("select * from author where id in"), foreach));
+    return new DynamicSqlSource(configuration, root).getBoundSql(parameter);
+  }
+
+  private static Map<String, Object> parameter(List<?> list) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("list", list);
+    return parameter;
+  }
+
+  private static Object value(BoundSql boundSql, ParameterMapping mapping) {
+    if (boundSql.hasAdditionalParameter(mapping.getProperty())) {
+      return boundSql.getAdditionalParameter(mapping.getProperty());
+    }
+    return ((Map<?, ?>) boundSql.getParameterObject()).get(mapping.getProperty());
+  }
+
+  public static class Name {
+    private final String value;
+
+    public Name(String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
+import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Test;
+
+public class ChunkedExecutionTest {
+
+  private final Configuration configuration = new Configuration();
+  private final List<String> executedSql = new ArrayList<>();
+  private final List<Object> executedParameters = new ArrayList<>();
+
+  @Test
+  public void shouldRunOneQueryPerPaddedChunkAndMergeResults() throws Exception {
+    MappedStatement ms = statement(SqlCommandType.SELECT, 2, true);
+    ParamMap<Object> parameter = new ParamMap<>();
+    List<Integer> ids = Arrays.asList(1, 2, 3, 4, 5);
+    parameter.put("ids", ids);
+    parameter.put("param1", ids);
+    parameter.put("status", "open");
+    ChunkedExecution chunks = ChunkedExecution.prepare(ms, parameter);
+    assertNotNull(chunks);
+    List<Object> results = chunks.query(executor(), RowBounds.DEFAULT);
+    assertEquals(Arrays.<Object>asList(1, 2, 3, 4, 5, 5), results);
+    assertEquals(3, executedSql.size());
+    for (Object chunkParameter : executedParameters) {
+      assertTrue(chunkParameter instanceof ParamMap);
+      assertEquals("open", ((Map<?, ?>) chunkParameter).get("status"));
+      assertSame(((Map<?, ?>) chunkParameter).get("ids"), ((Map<?, ?>) chunkParameter).get("param1"));
+    }
+    for (String sql : executedSql) {
+      assertEquals(executedSql.get(0), sql);
+    }
+  }
+
+  @Test
+  public void shouldNotPadChunksUnlessAskedTo() throws Exception {
+    MappedStatement ms = statement(SqlCommandType.SELECT, 2, false);
+    List<Object> results = ChunkedExecution.prepare(ms, parameter(Arrays.asList(1, 2, 3, 4, 5)))
+        .query(executor(), RowBounds.DEFAULT);
+    assertEquals(Arrays.<Object>asList(1, 2, 3, 4, 5), results);
+    assertEquals(3, executedSql.size());
+    assertFalse(executedSql.get(0).equals(executedSql.get(2)));
+  }
+
+  @Test
+  public void shouldPassEveryChunkToTheResultHandler() throws Exception {
+    MappedStatement ms = statement(SqlCommandType.SELECT, 2, false);
+    ChunkedExecution chunks = ChunkedExecution.prepare(ms, parameter(Arrays.asList(1, 2, 3)));
+    chunks.select(executor(), RowBounds.DEFAULT, context -> { });
+    assertEquals(2, executedSql.size());
+    assertEquals(Arrays.asList(3), ((Map<?, ?>) executedParameters.get(1)).get("ids"));
+  }
+
+  @Test
+  public void shouldRejectRowBoundsAndCursorsForChunkedStatements() throws Exception {
+    MappedStatement ms = statement(SqlCommandType.SELECT, 2, false);
+    ChunkedExecution chunks = ChunkedExecution.prepare(ms, parameter(Arrays.asList(1, 2, 3)));
+    try {
+      chunks.query(executor(), new RowBounds(1, 2));
+      fail();
+    } catch (ExecutorException e) {
+      assertTrue(e.getMessage().contains("RowBounds"));
+    }
+    try {
+      ChunkedExecution.reject(ms, parameter(Arrays.asList(1, 2, 3)), "A cursor");
+      fail();
+    } catch (ExecutorException e) {
+      assertTrue(e.getMessage().startsWith("A cursor"));
+    }
+    ChunkedExecution.reject(ms, parameter(Arrays.asList(1, 2)), "A cursor");
+    assertTrue(executedSql.isEmpty());
+  }
+
+  @Test
+  public void shouldNotPadInsertChunks() throws Exception {
+    MappedStatement ms = statement(SqlCommandType.INSERT, 2, true);
+    ChunkedExecution chunks = ChunkedExecution.prepare(ms, parameter(Arrays.asList(1, 2, 3)));
+    assertEquals(3, chunks.update(executor()));
+    assertEquals(2, executedSql.size());
+    assertFalse(executedSql.get(0).equals(executedSql.get(1)));
+  }
+
+  @Test
+  public void shouldRunOnceWhenCollectionFitsOrParameterIsNotAMap() {
+    MappedStatement ms = statement(SqlCommandType.SELECT, 3, false);
+    assertNull(ChunkedExecution.prepare(ms, parameter(Arrays.asList(1, 2, 3))));
+    assertNull(ChunkedExecution.prepare(ms, parameter(null)));
+    assertNull(ChunkedExecution.prepare(ms, Arrays.asList(1, 2, 3, 4)));
+    assertNull(ChunkedExecution.prepare(statement(SqlCommandType.SELECT, 0, false), parameter(Arrays.asList(1, 2, 3, 4))));
+  }
+
+  @Test
+  public void shouldRunAllChunksOnTheCallingSessionWhenSharedWorkersAreBusy() throws Exception {
+    configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), new UnpooledDataSource()));
+    configuration.setForeachChunkWorkers(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Runnable busy = new Runnable() {
+      @Override
+      public void run() {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    ExecutorService workers = configuration.getForeachChunkExecutor();
+    // one running and one queued task fill the shared pool
+    workers.execute(busy);
+    workers.execute(busy);
+    try {
+      ChunkedExecution chunks = ChunkedExecution.prepare(statement(SqlCommandType.SELECT, 2, true, false),
+          parameter(Arrays.asList(1, 2, 3, 4, 5)));
+      assertEquals(Arrays.<Object>asList(1, 2, 3, 4, 5), chunks.query(executor(), RowBounds.DEFAULT));
+      assertEquals(3, executedSql.size());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private MappedStatement statement(SqlCommandType type, int chunkSize, boolean chunkPadding) {
+    return statement(type, chunkSize, false, chunkPadding);
+  }
+
+  private MappedStatement statement(SqlCommandType type, int chunkSize, boolean chunkParallel, boolean chunkPadding) {
+    ForEachSqlNode forEach = new ForEachSqlNode(configuration, new StaticTextSqlNode("#{id}"), "ids", null, "id",
+        "(", ")", ",", chunkSize, chunkParallel, chunkPadding,
+        false);
+    SqlNode root = new MixedSqlNode(Arrays.asList(new StaticTextSqlNode("select * from author where id in"), forEach));
+    DynamicSqlSource sqlSource = new DynamicSqlSource(configuration, root, chunkSize > 0 ? forEach : null);
+    return new MappedStatement.Builder(configuration, "chunked", sqlSource, type).build();
+  }
+
+  private static Map<String, Object> parameter(List<Integer> ids) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("ids", ids);
+    return parameter;
+  }
+
+  private Executor executor() {
+    return (Executor) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Executor.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            MappedStatement ms = (MappedStatement) args[0];
+            BoundSql boundSql = ms.getBoundSql(args[1]);
+            executedSql.add(boundSql.getSql());
+            executedParameters.add(args[1]);
+            List<?> ids = (List<?>) ((Map<?, ?>) args[1]).get("ids");
+            return "query".equals(method.getName()) ? new ArrayList<Object>(ids) : (Object) ids.size();
+          }
+        });
+  }
+
+}
@@ -19,6 +19,8 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import java.sql.Array;
+import java.sql.Connection;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -32,6 +34,9 @@ public class ArrayTypeHandlerTest extends BaseTypeHandlerTest {
   @Mock
   Array mockArray;
 
+  @Mock
+  Connection connection;
+
   @Override
   @Test
   public void shouldSetParameter() throws Exception {
@@ -39,6 +44,23 @@ public class ArrayTypeHandlerTest extends BaseTypeHandlerTest {
     verify(ps).setArray(1, mockArray);
   }
 
+  @Test
+  public void shouldSetCollectionParameterAsSqlArray() throws Exception {
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("VARCHAR", new Object[]{null, "a"})).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, Arrays.asList(null, "a"), JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+    verify(mockArray).free();
+  }
+
+  @Test
+  public void shouldSetPrimitiveArrayParameterAsSqlArray() throws Exception {
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("BIGINT", new Object[]{1L, 2L})).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, new long[]{1L, 2L}, null);
+    verify(ps).setArray(1, mockArray);
+  }
+
   @Override
   @Test
   public void shouldGetResultFromResultSetByName() throws Exception {
@@ -23,8 +23,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 
+import org.apache.ibatis.binding.ArrayParamMap;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.domain.misc.RichType;
 import org.junit.Before;
 import org.junit.Test;
@@ -207,6 +210,14 @@ public class TypeHandlerRegistryTest {
     assertSame(SomeInterfaceTypeHandler.class, typeHandlerRegistry.getTypeHandler(ImplementingMultiInterfaceSomeEnum.class).getClass());
   }
 
+  @Test
+  public void shouldNotApplyMapTypeHandlerToParamMapSubclass() {
+    typeHandlerRegistry.register(HashMap.class, StringTypeHandler.class);
+    assertNull(typeHandlerRegistry.getTypeHandler(ParamMap.class));
+    assertNull(typeHandlerRegistry.getTypeHandler(ArrayParamMap.class));
+    assertFalse(typeHandlerRegistry.hasTypeHandler(ArrayParamMap.class));
+  }
+
   @Test
   public void shouldRegisterReplaceNullMap() {
     class Address {}